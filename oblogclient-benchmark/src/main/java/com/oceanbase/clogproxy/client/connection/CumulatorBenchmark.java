@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.ByteToMessageDecoder.Cumulator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of accumulating a large packet which arrives in many socket reads, comparing {@link
+ * ByteToMessageDecoder#MERGE_CUMULATOR} with {@link FrameCumulator}.
+ *
+ * <p>Besides the time per frame, the bytes copied by the cumulator are reported as auxiliary
+ * counters, so {@code copiedBytes / deliveredBytes} shows how many times each byte of the frame is
+ * copied before it can be decoded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CumulatorBenchmark {
+
+    /** Length of the packet body. */
+    @Param({"1048576", "16777216", "67108864"})
+    public int frameLength;
+
+    /** Number of bytes delivered by each socket read. */
+    @Param({"65536"})
+    public int readSize;
+
+    /** Byte allocator used for the reads and the cumulation. */
+    private final ByteBufAllocator alloc = PooledByteBufAllocator.DEFAULT;
+
+    /** Content of a socket read. */
+    private ByteBuf chunk;
+
+    /** Counters of copied and delivered bytes. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CopyCounters {
+
+        /** Number of bytes copied into the cumulation, including the bytes of each read. */
+        public long copiedBytes;
+
+        /** Number of bytes of the completed frames. */
+        public long deliveredBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            copiedBytes = 0;
+            deliveredBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        chunk = alloc.directBuffer(readSize).writeZero(readSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        chunk.release();
+    }
+
+    @Benchmark
+    public int mergeCumulator(CopyCounters counters) {
+        return accumulate(ByteToMessageDecoder.MERGE_CUMULATOR, null, counters);
+    }
+
+    @Benchmark
+    public int frameCumulator(CopyCounters counters) {
+        FrameCumulator cumulator = new FrameCumulator();
+        return accumulate(cumulator, cumulator, counters);
+    }
+
+    private int accumulate(Cumulator cumulator, FrameCumulator frame, CopyCounters counters) {
+        // the first read contains the packet header, the body length is known after it
+        ByteBuf cumulation = alloc.directBuffer(readSize).writeBytes(chunk, 0, readSize);
+        if (frame != null) {
+            frame.expect(frameLength);
+        }
+        while (cumulation.readableBytes() < frameLength) {
+            ByteBuf in =
+                    chunk.retainedSlice(
+                            0, Math.min(readSize, frameLength - cumulation.readableBytes()));
+            ByteBuf before = cumulation;
+            int readable = cumulation.readableBytes();
+            int capacity = cumulation.capacity();
+            counters.copiedBytes += in.readableBytes();
+            cumulation = cumulator.cumulate(alloc, cumulation, in);
+            if (cumulation != before || cumulation.capacity() != capacity) {
+                counters.copiedBytes += readable;
+            }
+        }
+        counters.deliveredBytes += frameLength;
+        int length = cumulation.readableBytes();
+        cumulation.release();
+        return length;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the transfer queue between the event loop and the stream thread, comparing {@link
+ * SpscRingQueue} with {@link LinkedBlockingQueue}.
+ *
+ * <p>The producer offers as {@link RecordSink} does and the consumer polls with a timeout as {@link
+ * ClientStream} does. The successful and failed operations of both sides are reported as auxiliary
+ * counters, so the throughput of the transfer is {@code polled}.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferQueueBenchmark {
+
+    /** The element transferred. */
+    private static final Object ELEMENT = new Object();
+
+    /** Type of the queue. */
+    @Param({"SPSC_RING", "LINKED"})
+    public String type;
+
+    /** Capacity of the queue, the default of transferQueueSize. */
+    @Param({"20000"})
+    public int capacity;
+
+    /** Timeout of the poll of consumer, shorter than the default readWaitTimeMs. */
+    @Param({"100"})
+    public long pollTimeoutMs;
+
+    /** The queue under test. */
+    private BlockingQueue<Object> queue;
+
+    /** Counters of the producer. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ProducerCounters {
+
+        /** Number of elements offered. */
+        public long offered;
+
+        /** Number of offers failed because the queue is full. */
+        public long offerFailed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            offered = 0;
+            offerFailed = 0;
+        }
+    }
+
+    /** Counters of the consumer. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ConsumerCounters {
+
+        /** Number of elements polled. */
+        public long polled;
+
+        /** Number of polls timed out. */
+        public long pollTimedOut;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            polled = 0;
+            pollTimedOut = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        queue =
+                "LINKED".equals(type)
+                        ? new LinkedBlockingQueue<>(capacity)
+                        : new SpscRingQueue<>(capacity);
+    }
+
+    @Benchmark
+    @Group("transfer")
+    @GroupThreads(1)
+    public void offer(ProducerCounters counters) {
+        if (queue.offer(ELEMENT)) {
+            counters.offered++;
+        } else {
+            counters.offerFailed++;
+        }
+    }
+
+    @Benchmark
+    @Group("transfer")
+    @GroupThreads(1)
+    public void poll(ConsumerCounters counters) throws InterruptedException {
+        if (queue.poll(pollTimeoutMs, TimeUnit.MILLISECONDS) != null) {
+            counters.polled++;
+        } else {
+            counters.pollTimedOut++;
+        }
+    }
+}
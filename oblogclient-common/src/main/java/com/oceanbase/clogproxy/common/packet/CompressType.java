@@ -26,7 +26,10 @@ public enum CompressType {
     NONE(0),
 
     /** LZ4 compress. */
-    LZ4(1);
+    LZ4(1),
+
+    /** Zstandard compress. */
+    ZSTD(2);
 
     /** The ordinal of this enumeration constant. */
     private final int code;
@@ -16,6 +16,8 @@
 
 package com.oceanbase.oms.logmessage;
 
+import io.netty.buffer.ByteBuf;
+
 import java.io.UnsupportedEncodingException;
 
 /**
@@ -40,6 +42,25 @@ public class ByteString {
         this.offset = offset;
     }
 
+    /**
+     * Constructor with a {@link ByteBuf}. The bytes are shared with the backing array if the buffer
+     * has one, otherwise they are copied out of the buffer.
+     *
+     * @param buf The source buffer.
+     * @param index The index of the first byte in the buffer.
+     * @param len The number of bytes.
+     */
+    public ByteString(ByteBuf buf, int index, int len) {
+        this.len = len;
+        if (buf.hasArray()) {
+            this.bytes = buf.array();
+            this.offset = buf.arrayOffset() + index;
+        } else {
+            this.bytes = new byte[len];
+            buf.getBytes(index, this.bytes);
+        }
+    }
+
     /**
      * Convert the bytes to any encoding.
      *
@@ -23,6 +23,7 @@ import com.oceanbase.oms.logmessage.typehelper.LogTypeHelperFactory;
 import com.oceanbase.oms.logmessage.utils.BinaryMessageUtils;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -199,7 +200,7 @@ public class LogMessage extends DataMessage.Record {
                 try {
                     dbName =
                             BinaryMessageUtils.getString(
-                                    byteBuf.array(), (int) dbNameOffset, UTF8_ENCODING);
+                                    byteBuf, (int) dbNameOffset, UTF8_ENCODING);
                 } catch (Exception e) {
                     throw new LogMessageException(e.getMessage(), e.getCause());
                 }
@@ -217,7 +218,7 @@ public class LogMessage extends DataMessage.Record {
                 try {
                     tableName =
                             BinaryMessageUtils.getString(
-                                    byteBuf.array(), (int) tbNameOffset, UTF8_ENCODING);
+                                    byteBuf, (int) tbNameOffset, UTF8_ENCODING);
                 } catch (Exception e) {
                     throw new LogMessageException(e.getMessage(), e.getCause());
                 }
@@ -245,7 +246,7 @@ public class LogMessage extends DataMessage.Record {
                 try {
                     serverId =
                             BinaryMessageUtils.getString(
-                                    byteBuf.array(), (int) instanceOffset, DEFAULT_ENCODING);
+                                    byteBuf, (int) instanceOffset, DEFAULT_ENCODING);
                 } catch (Exception e) {
                     throw new LogMessageException(e.getMessage(), e.getCause());
                 }
@@ -270,12 +271,10 @@ public class LogMessage extends DataMessage.Record {
         if (this.getOpt() == Type.DDL) {
             encodingStr = UTF8_ENCODING;
         } else {
-            encodingStr =
-                    BinaryMessageUtils.getString(byteBuf.array(), (int) encoding, DEFAULT_ENCODING);
+            encodingStr = BinaryMessageUtils.getString(byteBuf, (int) encoding, DEFAULT_ENCODING);
         }
         // get column count
-        ByteBuf wrapByteBuf =
-                Unpooled.wrappedBuffer(byteBuf.array()).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuf wrapByteBuf = byteBuf.slice(0, byteBuf.capacity()).order(ByteOrder.LITTLE_ENDIAN);
         wrapByteBuf.readerIndex((int) (PREFIX_LENGTH + colNamesOffset + BYTE_SIZE));
         int count = wrapByteBuf.readInt();
         // op type array
@@ -360,7 +359,7 @@ public class LogMessage extends DataMessage.Record {
                 int nextEncodingOffset = (int) wrapByteBuf.readUnsignedInt();
                 ByteString encodingByteString =
                         new ByteString(
-                                wrapByteBuf.array(),
+                                wrapByteBuf,
                                 PREFIX_LENGTH
                                         + currentEncodingOffset
                                         + BYTE_SIZE
@@ -387,7 +386,7 @@ public class LogMessage extends DataMessage.Record {
                 int nextColNameOffset = (int) wrapByteBuf.readUnsignedInt();
                 ByteString colNameByteString =
                         new ByteString(
-                                wrapByteBuf.array(),
+                                wrapByteBuf,
                                 PREFIX_LENGTH
                                         + currentColNameOffset
                                         + BYTE_SIZE
@@ -412,7 +411,7 @@ public class LogMessage extends DataMessage.Record {
                 if (nextOldColOffset != currentOldColOffset) {
                     value =
                             new ByteString(
-                                    wrapByteBuf.array(),
+                                    wrapByteBuf,
                                     PREFIX_LENGTH
                                             + currentOldColOffset
                                             + BYTE_SIZE
@@ -443,7 +442,7 @@ public class LogMessage extends DataMessage.Record {
                 if (currentNewColOffset != nextNewColOffset) {
                     value =
                             new ByteString(
-                                    wrapByteBuf.array(),
+                                    wrapByteBuf,
                                     PREFIX_LENGTH
                                             + currentNewColOffset
                                             + BYTE_SIZE
@@ -485,17 +484,16 @@ public class LogMessage extends DataMessage.Record {
                     encodingStr = UTF8_ENCODING;
                 } else {
                     encodingStr =
-                            BinaryMessageUtils.getString(
-                                    byteBuf.array(), (int) encoding, DEFAULT_ENCODING);
+                            BinaryMessageUtils.getString(byteBuf, (int) encoding, DEFAULT_ENCODING);
                 }
                 // pk info
                 List<Integer> pks = null;
                 if ((int) pkKeysOffset > 0) {
-                    pks = (BinaryMessageUtils.getArray(byteBuf.array(), (int) pkKeysOffset));
+                    pks = (BinaryMessageUtils.getArray(byteBuf, (int) pkKeysOffset));
                 }
                 // get column count
                 ByteBuf wrapByteBuf =
-                        Unpooled.wrappedBuffer(byteBuf.array()).order(ByteOrder.LITTLE_ENDIAN);
+                        byteBuf.slice(0, byteBuf.capacity()).order(ByteOrder.LITTLE_ENDIAN);
                 wrapByteBuf.readerIndex((int) (PREFIX_LENGTH + colNamesOffset + BYTE_SIZE));
                 int count = wrapByteBuf.readInt();
                 fields = new ArrayList<Field>(count);
@@ -601,7 +599,7 @@ public class LogMessage extends DataMessage.Record {
                         int nextEncodingOffset = (int) wrapByteBuf.readUnsignedInt();
                         ByteString encodingByteString =
                                 new ByteString(
-                                        wrapByteBuf.array(),
+                                        wrapByteBuf,
                                         PREFIX_LENGTH
                                                 + currentEncodingOffset
                                                 + BYTE_SIZE
@@ -626,7 +624,7 @@ public class LogMessage extends DataMessage.Record {
                     int nextColNameOffset = (int) wrapByteBuf.readUnsignedInt();
                     ByteString colNameByteString =
                             new ByteString(
-                                    wrapByteBuf.array(),
+                                    wrapByteBuf,
                                     PREFIX_LENGTH
                                             + currentColNameOffset
                                             + BYTE_SIZE
@@ -650,7 +648,7 @@ public class LogMessage extends DataMessage.Record {
                         if (nextOldColOffset != currentOldColOffset) {
                             value =
                                     new ByteString(
-                                            wrapByteBuf.array(),
+                                            wrapByteBuf,
                                             PREFIX_LENGTH
                                                     + currentOldColOffset
                                                     + BYTE_SIZE
@@ -680,7 +678,7 @@ public class LogMessage extends DataMessage.Record {
                         if (currentNewColOffset != nextNewColOffset) {
                             value =
                                     new ByteString(
-                                            wrapByteBuf.array(),
+                                            wrapByteBuf,
                                             PREFIX_LENGTH
                                                     + currentNewColOffset
                                                     + BYTE_SIZE
@@ -722,8 +720,7 @@ public class LogMessage extends DataMessage.Record {
                 if ((int) pkKeysOffset < 0) {
                     primaryKeyIndexList = new ArrayList<>();
                 } else {
-                    primaryKeyIndexList =
-                            BinaryMessageUtils.getArray(byteBuf.array(), (int) pkKeysOffset);
+                    primaryKeyIndexList = BinaryMessageUtils.getArray(byteBuf, (int) pkKeysOffset);
                 }
             }
         } catch (Exception e) {
@@ -748,12 +745,16 @@ public class LogMessage extends DataMessage.Record {
         if (byteBuf == null) {
             return null;
         }
-
-        return byteBuf.array();
+        if (byteBuf.hasArray()
+                && byteBuf.arrayOffset() == 0
+                && byteBuf.array().length == byteBuf.capacity()) {
+            return byteBuf.array();
+        }
+        return ByteBufUtil.getBytes(byteBuf, 0, byteBuf.capacity());
     }
 
     /**
-     * 解析buffer
+     * 解析buffer。buffer 可以是某个更大 buffer 的 slice，此时所有偏移量都相对于 slice 的起始位置。
      *
      * @param byteBuf ByteBuf
      * @throws Exception 解析出错
@@ -867,7 +868,7 @@ public class LogMessage extends DataMessage.Record {
         if (value == 0L) {
             return;
         }
-        crc32.update(byteBuf.array(), 0, byteBuf.array().length - 4);
+        crc32.update(byteBuf.nioBuffer(0, byteBuf.capacity() - 4));
         long actual = crc32.getValue();
         crc32.reset();
         if (value != actual) {
@@ -877,8 +878,7 @@ public class LogMessage extends DataMessage.Record {
 
     @Override
     public String getTraceId() {
-        List<ByteString> list =
-                BinaryMessageUtils.getByteStringList(byteBuf.array(), filterRuleValOffset);
+        List<ByteString> list = BinaryMessageUtils.getByteStringList(byteBuf, filterRuleValOffset);
         if (list == null || list.size() == 0 || list.size() < 3) {
             return null;
         }
@@ -888,8 +888,7 @@ public class LogMessage extends DataMessage.Record {
 
     @Override
     public String getOB10UniqueId() {
-        List<ByteString> list =
-                BinaryMessageUtils.getByteStringList(byteBuf.array(), filterRuleValOffset);
+        List<ByteString> list = BinaryMessageUtils.getByteStringList(byteBuf, filterRuleValOffset);
         if (list == null || list.size() == 0 || list.size() < 3) {
             return null;
         }
@@ -903,7 +902,7 @@ public class LogMessage extends DataMessage.Record {
         if (tailOffset == -1) {
             return null;
         }
-        List<Integer> list = BinaryMessageUtils.getArray(byteBuf.array(), (int) tailOffset);
+        List<Integer> list = BinaryMessageUtils.getArray(byteBuf, (int) tailOffset);
         if (list == null || list.size() == 0) {
             return null;
         }
@@ -919,8 +918,7 @@ public class LogMessage extends DataMessage.Record {
             return null;
         }
         List<List<String>> result = new ArrayList<List<String>>();
-        ByteBuf wrapByteBuf =
-                Unpooled.wrappedBuffer(byteBuf.array()).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuf wrapByteBuf = byteBuf.slice(0, byteBuf.capacity()).order(ByteOrder.LITTLE_ENDIAN);
 
         // get field count
         wrapByteBuf.readerIndex(PREFIX_LENGTH + valueOffset + 1);
@@ -957,7 +955,7 @@ public class LogMessage extends DataMessage.Record {
                     }
                     String k =
                             new ByteString(
-                                            wrapByteBuf.array(),
+                                            wrapByteBuf,
                                             PREFIX_LENGTH
                                                     + valueOffset
                                                     + 5
@@ -1002,7 +1000,7 @@ public class LogMessage extends DataMessage.Record {
             // get key str
             keysValue = new HashSet<String>();
             List<ByteString> keys =
-                    BinaryMessageUtils.getByteStringList(byteBuf.array(), (int) pkValOffset);
+                    BinaryMessageUtils.getByteStringList(byteBuf, (int) pkValOffset);
             if (keys == null || keys.size() == 0) {
                 return null;
             }
@@ -1093,9 +1091,8 @@ public class LogMessage extends DataMessage.Record {
                 return null;
             }
             pkValues = new ArrayList<String>();
-            List<Integer> pks = BinaryMessageUtils.getArray(byteBuf.array(), (int) pkKeysOffset);
-            List<ByteString> names =
-                    BinaryMessageUtils.getByteStringList(byteBuf.array(), colNamesOffset);
+            List<Integer> pks = BinaryMessageUtils.getArray(byteBuf, (int) pkKeysOffset);
+            List<ByteString> names = BinaryMessageUtils.getByteStringList(byteBuf, colNamesOffset);
             if (pks != null) {
                 for (int idx : pks) {
                     pkValues.add(names.get(idx).toString(DEFAULT_ENCODING));
@@ -1121,7 +1118,7 @@ public class LogMessage extends DataMessage.Record {
         try {
             if ((int) pkValOffset > 0) {
                 List<ByteString> rawConstraintByteString =
-                        BinaryMessageUtils.getByteStringList(byteBuf.array(), pkValOffset);
+                        BinaryMessageUtils.getByteStringList(byteBuf, pkValOffset);
                 if (rawConstraintByteString != null && !rawConstraintByteString.isEmpty()) {
                     /**
                      * The raw format is "(0,1),(2,3)" or "(", the last one is for empty primary or
@@ -1180,7 +1177,7 @@ public class LogMessage extends DataMessage.Record {
             if ((int) pkValOffset < 0) {
                 return null;
             } else {
-                return BinaryMessageUtils.getByteStringList(byteBuf.array(), pkValOffset);
+                return BinaryMessageUtils.getByteStringList(byteBuf, pkValOffset);
             }
 
         } catch (Exception e) {
@@ -1219,6 +1216,56 @@ public class LogMessage extends DataMessage.Record {
         }
     }
 
+    /**
+     * Get the hash of the database name, table name and key values. The key is the primary key, or
+     * the first unique key if there is no primary key, and its values are taken from the old image
+     * for DELETE and UPDATE, so an update is hashed the same as the insert before it. It's computed
+     * from the raw bytes without decoding them, so rows of the same key always have the same hash,
+     * and rows of a table without keys only depend on the table.
+     *
+     * @return The hash value.
+     */
+    public int getKeyHash() {
+        switch (getOpt()) {
+            case DELETE:
+            case INDEX_DELETE:
+            case UPDATE:
+            case INDEX_UPDATE:
+                return keyHash(oldColsOffset);
+            default:
+                return keyHash(newColsOffset);
+        }
+    }
+
+    /**
+     * Check whether the row is an UPDATE whose key values in the new image have another hash than
+     * {@link #getKeyHash()}, that is, the update moves the row to a key which may be ordered apart
+     * from the old one. A key change that keeps the hash is not reported.
+     *
+     * @return True if the update changes the hash of the key.
+     */
+    public boolean isKeyHashChanged() {
+        switch (getOpt()) {
+            case UPDATE:
+            case INDEX_UPDATE:
+                return keyHash(oldColsOffset) != keyHash(newColsOffset);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Hash the database name, table name and key values of an image.
+     *
+     * @param valuesOffset Reading offset of the column values of the image.
+     * @return The hash value.
+     */
+    private int keyHash(long valuesOffset) {
+        int hash = BinaryMessageUtils.hashString(byteBuf, dbNameOffset, 1);
+        hash = BinaryMessageUtils.hashString(byteBuf, tbNameOffset, hash);
+        return BinaryMessageUtils.hashKeyValues(byteBuf, pkValOffset, valuesOffset, hash);
+    }
+
     public long getMetaVersion() {
         return this.metaVersion;
     }
@@ -1231,10 +1278,9 @@ public class LogMessage extends DataMessage.Record {
                     uniqueKeyList = "";
                     return uniqueKeyList;
                 } else {
-                    List<Integer> uks =
-                            BinaryMessageUtils.getArray(byteBuf.array(), (int) ukColsOffset);
+                    List<Integer> uks = BinaryMessageUtils.getArray(byteBuf, (int) ukColsOffset);
                     List<ByteString> names =
-                            BinaryMessageUtils.getByteStringList(byteBuf.array(), colNamesOffset);
+                            BinaryMessageUtils.getByteStringList(byteBuf, colNamesOffset);
                     StringBuilder ukKeyName = new StringBuilder();
                     if (uks != null && names != null) {
                         for (int idx : uks) {
@@ -1259,7 +1305,7 @@ public class LogMessage extends DataMessage.Record {
             return null;
         } else {
             if (timeMarks == null) {
-                timeMarks = BinaryMessageUtils.getArray(byteBuf.array(), (int) timeMarkOffset);
+                timeMarks = BinaryMessageUtils.getArray(byteBuf, (int) timeMarkOffset);
             }
             return timeMarks;
         }
@@ -1293,7 +1339,7 @@ public class LogMessage extends DataMessage.Record {
         if (tailOffset == -1) {
             return 0L;
         }
-        List<Integer> list = BinaryMessageUtils.getArray(byteBuf.array(), (int) tailOffset);
+        List<Integer> list = BinaryMessageUtils.getArray(byteBuf, (int) tailOffset);
         if (list == null || list.size() != 12) {
             return 0L;
         }
@@ -1310,7 +1356,7 @@ public class LogMessage extends DataMessage.Record {
         if (tailOffset == -1) {
             return "0";
         }
-        List<Integer> list = BinaryMessageUtils.getArray(byteBuf.array(), (int) tailOffset);
+        List<Integer> list = BinaryMessageUtils.getArray(byteBuf, (int) tailOffset);
         if (list == null || list.size() != 12) {
             return "0";
         }
@@ -1323,7 +1369,7 @@ public class LogMessage extends DataMessage.Record {
 
     public String getEncodingStr() {
         try {
-            return BinaryMessageUtils.getString(byteBuf.array(), (int) encoding, DEFAULT_ENCODING);
+            return BinaryMessageUtils.getString(byteBuf, (int) encoding, DEFAULT_ENCODING);
         } catch (UnsupportedEncodingException e) {
             throw new LogMessageException(e.getMessage(), e.getCause());
         }
@@ -44,14 +44,29 @@ public class BinaryMessageUtils {
      */
     public static String getString(byte[] data, int offset, String encoding)
             throws UnsupportedEncodingException {
-        ByteBuf wrapByteBuf = Unpooled.wrappedBuffer(data).order(ByteOrder.LITTLE_ENDIAN);
+        return getString(Unpooled.wrappedBuffer(data), offset, encoding);
+    }
+
+    /**
+     * Get string begin with offset.
+     *
+     * @param data A buffer of message, the offset is relative to the index 0 of it.
+     * @param offset Reading offset.
+     * @param encoding String encoding.
+     * @return Result string.
+     * @throws UnsupportedEncodingException When the encoding is not supported.
+     */
+    public static String getString(ByteBuf data, int offset, String encoding)
+            throws UnsupportedEncodingException {
+        ByteBuf wrapByteBuf = data.slice(0, data.capacity()).order(ByteOrder.LITTLE_ENDIAN);
         wrapByteBuf.readerIndex(PREFIX_LENGTH + offset);
         byte t = wrapByteBuf.readByte();
         if ((t & DataType.DC_ARRAY) != 0 || (t & DataType.DC_NULL) != 0) {
             return null;
         }
         int length = (int) wrapByteBuf.readUnsignedInt();
-        return new String(wrapByteBuf.array(), PREFIX_LENGTH + 5 + offset, length - 1, encoding);
+        ByteString bytes = new ByteString(wrapByteBuf, PREFIX_LENGTH + 5 + offset, length - 1);
+        return new String(bytes.getRawBytes(), bytes.getOffset(), bytes.getLen(), encoding);
     }
 
     /**
@@ -63,7 +78,19 @@ public class BinaryMessageUtils {
      * @throws IOException If data type is unsigned long.
      */
     public static List getArray(byte[] data, int offset) throws IOException {
-        ByteBuf wrapByteBuf = Unpooled.wrappedBuffer(data).order(ByteOrder.LITTLE_ENDIAN);
+        return getArray(Unpooled.wrappedBuffer(data), offset);
+    }
+
+    /**
+     * Get list begin with offset.
+     *
+     * @param data A buffer of message, the offset is relative to the index 0 of it.
+     * @param offset Reading offset.
+     * @return Result list.
+     * @throws IOException If data type is unsigned long.
+     */
+    public static List getArray(ByteBuf data, int offset) throws IOException {
+        ByteBuf wrapByteBuf = data.slice(0, data.capacity()).order(ByteOrder.LITTLE_ENDIAN);
         wrapByteBuf.readerIndex(PREFIX_LENGTH + offset);
         byte t = wrapByteBuf.readByte();
         if ((t & DataType.DC_ARRAY) == 0) {
@@ -129,10 +156,21 @@ public class BinaryMessageUtils {
      * @return A list of {@link ByteString}.
      */
     public static List<ByteString> getByteStringList(byte[] data, long offset) {
+        return getByteStringList(Unpooled.wrappedBuffer(data), offset);
+    }
+
+    /**
+     * Get ByteString begin with offset.
+     *
+     * @param data A buffer of message, the offset is relative to the index 0 of it.
+     * @param offset Reading offset.
+     * @return A list of {@link ByteString}.
+     */
+    public static List<ByteString> getByteStringList(ByteBuf data, long offset) {
         if (offset == -1) {
             return null;
         }
-        ByteBuf wrapByteBuf = Unpooled.wrappedBuffer(data).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuf wrapByteBuf = data.slice(0, data.capacity()).order(ByteOrder.LITTLE_ENDIAN);
         wrapByteBuf.readerIndex((int) (PREFIX_LENGTH + offset));
         byte t = wrapByteBuf.readByte();
         if ((t & DataType.DC_ARRAY) == 0 || (t & DataType.DT_MASK) != DataType.DT_STRING) {
@@ -154,7 +192,7 @@ public class BinaryMessageUtils {
             } else {
                 lists.add(
                         new ByteString(
-                                wrapByteBuf.array(),
+                                wrapByteBuf,
                                 PREFIX_LENGTH + currentOffset + readBytes + (int) offset,
                                 nextOffset - currentOffset - 1));
             }
@@ -162,4 +200,111 @@ public class BinaryMessageUtils {
         }
         return lists;
     }
+
+    /**
+     * Hash the bytes of a string begin with offset, without decoding it.
+     *
+     * @param data A buffer of message, the offset is relative to the index 0 of it.
+     * @param offset Reading offset, a negative value means the string is absent.
+     * @param hash The hash value to combine with.
+     * @return The hash value combined with the bytes of the string.
+     */
+    public static int hashString(ByteBuf data, long offset, int hash) {
+        if ((int) offset < 0) {
+            return 31 * hash;
+        }
+        int index = PREFIX_LENGTH + (int) offset;
+        byte t = data.getByte(index);
+        if ((t & DataType.DC_ARRAY) != 0 || (t & DataType.DC_NULL) != 0) {
+            return 31 * hash;
+        }
+        int length = (int) data.getUnsignedIntLE(index + 1);
+        return hashBytes(data, index + 5, length - 1, 31 * hash);
+    }
+
+    /**
+     * Hash the values of the first key constraint of a row, without decoding them. The constraints
+     * are a string list in the format "(0,1),(2,3)", where the first tuple is the column indexes of
+     * the primary key, or of a unique key if there is no primary key.
+     *
+     * @param data A buffer of message, the offset is relative to the index 0 of it.
+     * @param keysOffset Reading offset of the constraint list, a negative value means it is absent.
+     * @param valuesOffset Reading offset of the column values, a negative value means they are
+     *     absent.
+     * @param hash The hash value to combine with.
+     * @return The hash value combined with the bytes of the key values.
+     */
+    public static int hashKeyValues(ByteBuf data, long keysOffset, long valuesOffset, int hash) {
+        if ((int) keysOffset < 0 || (int) valuesOffset < 0) {
+            return 31 * hash;
+        }
+        int index = PREFIX_LENGTH + (int) keysOffset;
+        byte t = data.getByte(index);
+        if ((t & DataType.DC_ARRAY) == 0 || (t & DataType.DT_MASK) != DataType.DT_STRING) {
+            throw new RuntimeException("Data type not array or not string");
+        }
+        int count = data.getIntLE(index + 1);
+        if (count == 0) {
+            return 31 * hash;
+        }
+        // only the first string of the list is read, which starts with the first tuple
+        int start = (int) data.getUnsignedIntLE(index + 5);
+        int end = (int) data.getUnsignedIntLE(index + 5 + 4);
+        int keys = index + 5 + (count + 1) * 4;
+        int column = -1;
+        for (int i = keys + start; i < keys + end - 1; i++) {
+            byte b = data.getByte(i);
+            if (b >= '0' && b <= '9') {
+                column = (column < 0 ? 0 : column * 10) + (b - '0');
+            } else if (b == ',' || b == ')') {
+                hash = hashArrayElement(data, valuesOffset, column, hash);
+                column = -1;
+                if (b == ')') {
+                    return hash;
+                }
+            }
+        }
+        // the last tuple may be not closed
+        return column < 0 ? hash : hashArrayElement(data, valuesOffset, column, hash);
+    }
+
+    /**
+     * Hash the bytes of an element in a string list, without decoding it.
+     *
+     * @param data A buffer of message, the offset is relative to the index 0 of it.
+     * @param offset Reading offset of the list.
+     * @param element Index of the element in the list.
+     * @param hash The hash value to combine with.
+     * @return The hash value combined with the bytes of the element.
+     */
+    private static int hashArrayElement(ByteBuf data, long offset, int element, int hash) {
+        int index = PREFIX_LENGTH + (int) offset;
+        int count = data.getIntLE(index + 1);
+        if (element < 0 || element >= count) {
+            return 31 * hash;
+        }
+        int start = (int) data.getUnsignedIntLE(index + 5 + element * 4);
+        int end = (int) data.getUnsignedIntLE(index + 5 + (element + 1) * 4);
+        if (end == start) {
+            // null value
+            return 31 * hash;
+        }
+        return hashBytes(data, index + 5 + (count + 1) * 4 + start, end - start - 1, 31 * hash);
+    }
+
+    /**
+     * Hash a range of bytes.
+     *
+     * @param data A buffer.
+     * @param index Start index of the bytes.
+     * @param length Length of the bytes.
+     * @param hash The hash value to combine with.
+     * @return The hash value combined with the bytes.
+     */
+    private static int hashBytes(ByteBuf data, int index, int length, int hash) {
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + data.getByte(index + i);
+        }
+        return hash;
+    }
 }
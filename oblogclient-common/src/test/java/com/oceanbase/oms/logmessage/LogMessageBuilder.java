@@ -0,0 +1,234 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.oms.logmessage;
+
+import com.oceanbase.oms.logmessage.enums.DataType;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test utility that builds a log message in the binary layout, which is a 12 bytes prefix followed
+ * by the header and the data of it.
+ */
+public class LogMessageBuilder {
+
+    /** Source type of OceanBase in MySQL mode. */
+    private static final int SRC_TYPE_OB_MYSQL = 4;
+
+    /** Length of the header which is placed after the prefix. */
+    private static final int HEADER_LENGTH = 1 + 4 + 96;
+
+    private final DataMessage.Record.Type type;
+
+    private String db = "db";
+
+    private String table = "tbl";
+
+    private long timestamp = 0;
+
+    private String[] names = new String[0];
+
+    private String[] oldValues = new String[0];
+
+    private String[] newValues = new String[0];
+
+    private String[] constraints = new String[0];
+
+    /**
+     * Constructor.
+     *
+     * @param type Operation type of the message.
+     */
+    public LogMessageBuilder(DataMessage.Record.Type type) {
+        this.type = type;
+    }
+
+    /**
+     * Set the database and table name.
+     *
+     * @param db Database name.
+     * @param table Table name.
+     * @return This builder.
+     */
+    public LogMessageBuilder table(String db, String table) {
+        this.db = db;
+        this.table = table;
+        return this;
+    }
+
+    /**
+     * Set the timestamp, which is used as the safe timestamp as well.
+     *
+     * @param timestamp Timestamp of the message.
+     * @return This builder.
+     */
+    public LogMessageBuilder timestamp(long timestamp) {
+        this.timestamp = timestamp;
+        return this;
+    }
+
+    /**
+     * Set the column names.
+     *
+     * @param names Column names.
+     * @return This builder.
+     */
+    public LogMessageBuilder columns(String... names) {
+        this.names = names;
+        return this;
+    }
+
+    /**
+     * Set the column values of the old image, a null element is a null value.
+     *
+     * @param values Column values.
+     * @return This builder.
+     */
+    public LogMessageBuilder oldValues(String... values) {
+        this.oldValues = values;
+        return this;
+    }
+
+    /**
+     * Set the column values of the new image, a null element is a null value.
+     *
+     * @param values Column values.
+     * @return This builder.
+     */
+    public LogMessageBuilder newValues(String... values) {
+        this.newValues = values;
+        return this;
+    }
+
+    /**
+     * Set the primary and unique constraints, each one is a string like "(0,1),(2)".
+     *
+     * @param constraints Column index tuples of the constraints.
+     * @return This builder.
+     */
+    public LogMessageBuilder constraints(String... constraints) {
+        this.constraints = constraints;
+        return this;
+    }
+
+    /**
+     * Build the bytes of the message.
+     *
+     * @return The bytes of the message.
+     */
+    public byte[] build() {
+        ByteBuf data = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        int encodingOffset = HEADER_LENGTH + writeString(data, "utf8mb4");
+        int dbOffset = HEADER_LENGTH + writeString(data, db);
+        int tableOffset = HEADER_LENGTH + writeString(data, table);
+        int colNamesOffset = HEADER_LENGTH + writeStringArray(data, names);
+        int colTypesOffset = HEADER_LENGTH + data.writerIndex();
+        data.writeByte(DataType.DC_ARRAY | DataType.DT_UINT8);
+        data.writeInt(names.length);
+        for (int i = 0; i < names.length; i++) {
+            data.writeByte(253);
+        }
+        int oldColsOffset = HEADER_LENGTH + writeStringArray(data, oldValues);
+        int newColsOffset = HEADER_LENGTH + writeStringArray(data, newValues);
+        int pkValOffset =
+                constraints.length == 0 ? -1 : HEADER_LENGTH + writeStringArray(data, constraints);
+
+        ByteBuf buf = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        buf.writeZero(12);
+        buf.writeByte(DataType.DC_ARRAY | DataType.DT_UINT8);
+        buf.writeInt(96);
+        buf.writeByte(2);
+        buf.writeByte(SRC_TYPE_OB_MYSQL);
+        buf.writeByte(type.value());
+        buf.writeByte(0);
+        buf.writeInt(0);
+        buf.writeLong(timestamp);
+        buf.writeLong(timestamp);
+        buf.writeInt(encodingOffset);
+        buf.writeInt(-1);
+        buf.writeInt(-1);
+        buf.writeInt(dbOffset);
+        buf.writeInt(tableOffset);
+        buf.writeInt(colNamesOffset);
+        buf.writeInt(colTypesOffset);
+        buf.writeInt(pkValOffset);
+        buf.writeLong(timestamp);
+        buf.writeLong(0);
+        buf.writeInt(oldColsOffset);
+        buf.writeInt(newColsOffset);
+        buf.writeInt(-1);
+        buf.writeInt(-1);
+        buf.writeLong(-1);
+        buf.writeBytes(data);
+        buf.setIntLE(4, buf.writerIndex() - 8);
+
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.readBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Parse a message from a buffer, which can be a slice of a larger one.
+     *
+     * @param data A buffer of the message.
+     * @return The parsed message.
+     * @throws Exception If the message can't be parsed.
+     */
+    public static LogMessage parse(ByteBuf data) throws Exception {
+        LogMessage message = new LogMessage(false);
+        message.setByteBuf(data.order(ByteOrder.LITTLE_ENDIAN));
+        return message;
+    }
+
+    private static int writeString(ByteBuf data, String value) {
+        int offset = data.writerIndex();
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeByte(DataType.DT_STRING);
+        data.writeInt(bytes.length + 1);
+        data.writeBytes(bytes);
+        data.writeByte(0);
+        return offset;
+    }
+
+    private static int writeStringArray(ByteBuf data, String[] values) {
+        int offset = data.writerIndex();
+        data.writeByte(DataType.DC_ARRAY | DataType.DT_STRING);
+        data.writeInt(values.length);
+        if (values.length == 0) {
+            return offset;
+        }
+        int current = 0;
+        data.writeInt(current);
+        for (String value : values) {
+            if (value != null) {
+                current += value.getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+            data.writeInt(current);
+        }
+        for (String value : values) {
+            if (value != null) {
+                data.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+                data.writeByte(0);
+            }
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.oms.logmessage;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class LogMessageTest {
+
+    @Test
+    public void testParseSlice() throws Exception {
+        byte[] first =
+                new LogMessageBuilder(DataMessage.Record.Type.INSERT)
+                        .table("db0", "tbl0")
+                        .timestamp(1000L)
+                        .columns("id")
+                        .newValues("0")
+                        .constraints("(0)")
+                        .build();
+        byte[] second =
+                new LogMessageBuilder(DataMessage.Record.Type.UPDATE)
+                        .table("db1", "tbl1")
+                        .timestamp(1001L)
+                        .columns("id", "name")
+                        .oldValues("1", null)
+                        .newValues("1", "name_1")
+                        .constraints("(0),(1)")
+                        .build();
+        ByteBuf block = Unpooled.buffer().writeZero(3).writeBytes(first).writeBytes(second);
+
+        // the offsets in the message are relative to the slice instead of the block
+        LogMessage message = LogMessageBuilder.parse(block.slice(3 + first.length, second.length));
+        Assert.assertEquals(DataMessage.Record.Type.UPDATE, message.getOpt());
+        Assert.assertEquals("db1", message.getDbName());
+        Assert.assertEquals("tbl1", message.getTableName());
+        Assert.assertEquals("1001", message.getSafeTimestamp());
+        List<int[]> tuples = message.getPrimaryAndUniqueConstraintColumnIndexTuples();
+        Assert.assertEquals(2, tuples.size());
+        Assert.assertArrayEquals(new int[] {0}, tuples.get(0));
+        Assert.assertArrayEquals(new int[] {1}, tuples.get(1));
+
+        // each column has a field of the old image and then a field of the new one
+        List<DataMessage.Record.Field> fields = message.getFieldList();
+        Assert.assertEquals(4, fields.size());
+        Assert.assertEquals("id", fields.get(0).getFieldname());
+        Assert.assertTrue(fields.get(0).isPrev());
+        Assert.assertEquals("1", fields.get(0).getValue().toString());
+        Assert.assertNull(fields.get(2).getValue());
+        Assert.assertFalse(fields.get(3).isPrev());
+        Assert.assertEquals("name_1", fields.get(3).getValue().toString());
+    }
+
+    @Test
+    public void testKeyHash() throws Exception {
+        int insert = keyHash(DataMessage.Record.Type.INSERT, "tbl", "(0)", null, "1", "a");
+        Assert.assertEquals(
+                insert, keyHash(DataMessage.Record.Type.INSERT, "tbl", "(0)", null, "1", "b"));
+        Assert.assertNotEquals(
+                insert, keyHash(DataMessage.Record.Type.INSERT, "tbl", "(0)", null, "2", "a"));
+        Assert.assertNotEquals(
+                insert, keyHash(DataMessage.Record.Type.INSERT, "tbl2", "(0)", null, "1", "a"));
+
+        // the rows of DELETE and UPDATE are hashed by the key in the old image
+        Assert.assertEquals(
+                insert,
+                keyHash(DataMessage.Record.Type.DELETE, "tbl", "(0)", new String[] {"1", "a"}));
+        Assert.assertEquals(
+                insert,
+                keyHash(
+                        DataMessage.Record.Type.UPDATE,
+                        "tbl",
+                        "(0)",
+                        new String[] {"1", "a"},
+                        "1",
+                        "b"));
+
+        // only the first constraint counts, and the order of its columns matters
+        int composite =
+                keyHash(DataMessage.Record.Type.INSERT, "tbl", "(0,1),(2)", null, "1", "a", "x");
+        Assert.assertEquals(
+                composite,
+                keyHash(DataMessage.Record.Type.INSERT, "tbl", "(0,1),(2)", null, "1", "a", "y"));
+        Assert.assertEquals(
+                composite,
+                keyHash(DataMessage.Record.Type.INSERT, "tbl", "(0,1", null, "1", "a", "y"));
+        Assert.assertNotEquals(
+                composite,
+                keyHash(DataMessage.Record.Type.INSERT, "tbl", "(1,0)", null, "1", "a", "x"));
+
+        // the rows of a table without keys have the same hash
+        Assert.assertEquals(
+                keyHash(DataMessage.Record.Type.INSERT, "tbl", null, null, "1"),
+                keyHash(DataMessage.Record.Type.INSERT, "tbl", null, null, "2"));
+        Assert.assertEquals(
+                keyHash(DataMessage.Record.Type.INSERT, "tbl", "(0)", null, (String) null),
+                keyHash(DataMessage.Record.Type.INSERT, "tbl", "(0)", null, (String) null));
+    }
+
+    @Test
+    public void testKeyHashChanged() throws Exception {
+        Assert.assertFalse(update(new String[] {"1", "a"}, "1", "b").isKeyHashChanged());
+        LogMessage moved = update(new String[] {"1", "a"}, "2", "a");
+        Assert.assertTrue(moved.isKeyHashChanged());
+        Assert.assertEquals(
+                keyHash(DataMessage.Record.Type.INSERT, "tbl", "(0)", null, "1", "a"),
+                moved.getKeyHash());
+        Assert.assertFalse(
+                LogMessageBuilder.parse(
+                                Unpooled.wrappedBuffer(
+                                        new LogMessageBuilder(DataMessage.Record.Type.INSERT)
+                                                .columns("id")
+                                                .newValues("1")
+                                                .constraints("(0)")
+                                                .build()))
+                        .isKeyHashChanged());
+    }
+
+    private static LogMessage update(String[] oldValues, String... newValues) throws Exception {
+        byte[] bytes =
+                new LogMessageBuilder(DataMessage.Record.Type.UPDATE)
+                        .columns("id", "name")
+                        .oldValues(oldValues)
+                        .newValues(newValues)
+                        .constraints("(0)")
+                        .build();
+        return LogMessageBuilder.parse(Unpooled.wrappedBuffer(bytes));
+    }
+
+    private static int keyHash(
+            DataMessage.Record.Type type,
+            String table,
+            String constraint,
+            String[] oldValues,
+            String... newValues)
+            throws Exception {
+        String[] names = new String[oldValues == null ? newValues.length : oldValues.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "c" + i;
+        }
+        byte[] bytes =
+                new LogMessageBuilder(type)
+                        .table("db", table)
+                        .columns(names)
+                        .oldValues(oldValues == null ? new String[0] : oldValues)
+                        .newValues(newValues)
+                        .constraints(constraint == null ? new String[0] : new String[] {constraint})
+                        .build();
+        return LogMessageBuilder.parse(Unpooled.wrappedBuffer(bytes)).getKeyHash();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.oms.logmessage.utils;
+
+import com.oceanbase.oms.logmessage.ByteString;
+import com.oceanbase.oms.logmessage.enums.DataType;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class BinaryMessageUtilsTest {
+
+    @Test
+    public void testReadSlice() throws Exception {
+        int[] offsets = new int[2];
+        ByteBuf data = message(offsets, new String[] {"a", null, "bc"}, new String[0]);
+        List<ByteString> values = BinaryMessageUtils.getByteStringList(data, offsets[0]);
+        Assert.assertEquals(3, values.size());
+        Assert.assertEquals("a", values.get(0).toString());
+        Assert.assertNull(values.get(1));
+        Assert.assertEquals("bc", values.get(2).toString());
+        Assert.assertNull(BinaryMessageUtils.getByteStringList(data, offsets[1]));
+        Assert.assertNull(BinaryMessageUtils.getByteStringList(data, -1));
+
+        ByteBuf string = Unpooled.buffer().writeZero(7 + 12);
+        string.writeByte(DataType.DT_STRING).writeIntLE(4).writeBytes("abc\0".getBytes());
+        Assert.assertEquals(
+                "abc",
+                BinaryMessageUtils.getString(
+                        string.slice(7, string.readableBytes() - 7), 0, "UTF-8"));
+    }
+
+    @Test
+    public void testHashKeyValues() {
+        int[] offsets = new int[2];
+        String[] values = {"a", "b", null};
+        int hash =
+                BinaryMessageUtils.hashKeyValues(
+                        message(offsets, new String[] {"(1,0),(2)"}, values),
+                        offsets[0],
+                        offsets[1],
+                        1);
+        Assert.assertEquals(hash, hashKeyValues("(1,0)", values));
+        Assert.assertEquals(hash, hashKeyValues("(1,0", values));
+        Assert.assertEquals(hash, hashKeyValues("(1,0)", "a", "b", "c"));
+        Assert.assertNotEquals(hash, hashKeyValues("(0,1)", values));
+        Assert.assertNotEquals(hash, hashKeyValues("(1,0)", "a", "c", null));
+
+        // a null value and a column out of range are hashed as absent
+        Assert.assertEquals(31, hashKeyValues("(2)", values));
+        Assert.assertEquals(31, hashKeyValues("(3)", values));
+        Assert.assertEquals(31, BinaryMessageUtils.hashKeyValues(Unpooled.EMPTY_BUFFER, -1, 0, 1));
+        Assert.assertEquals(31, BinaryMessageUtils.hashString(Unpooled.EMPTY_BUFFER, -1, 1));
+    }
+
+    private static int hashKeyValues(String constraint, String... values) {
+        int[] offsets = new int[2];
+        ByteBuf data = message(offsets, new String[] {constraint}, values);
+        return BinaryMessageUtils.hashKeyValues(data, offsets[0], offsets[1], 1);
+    }
+
+    /**
+     * Build a message of string lists, which is a slice of a larger buffer.
+     *
+     * @param offsets The array to hold the offsets of the lists.
+     * @param lists String lists, a null element is a null value.
+     * @return A slice of the message.
+     */
+    private static ByteBuf message(int[] offsets, String[]... lists) {
+        ByteBuf buf = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN).writeZero(5 + 12);
+        for (int i = 0; i < lists.length; i++) {
+            offsets[i] = buf.writerIndex() - 5 - 12;
+            buf.writeByte(DataType.DC_ARRAY | DataType.DT_STRING);
+            buf.writeInt(lists[i].length);
+            if (lists[i].length == 0) {
+                continue;
+            }
+            int current = 0;
+            buf.writeInt(current);
+            for (String value : lists[i]) {
+                if (value != null) {
+                    current += value.getBytes(StandardCharsets.UTF_8).length + 1;
+                }
+                buf.writeInt(current);
+            }
+            for (String value : lists[i]) {
+                if (value != null) {
+                    buf.writeBytes(value.getBytes(StandardCharsets.UTF_8)).writeByte(0);
+                }
+            }
+        }
+        return buf.slice(5, buf.readableBytes() - 5);
+    }
+}
@@ -22,6 +22,7 @@ import com.oceanbase.clogproxy.client.connection.ClientStream;
 import com.oceanbase.clogproxy.client.connection.ConnectionParams;
 import com.oceanbase.clogproxy.client.listener.RecordListener;
 import com.oceanbase.clogproxy.client.listener.StatusListener;
+import com.oceanbase.clogproxy.client.listener.TransactionListener;
 import com.oceanbase.clogproxy.client.util.Validator;
 import com.oceanbase.clogproxy.common.packet.ProtocolVersion;
 
@@ -34,7 +35,8 @@ public class LogProxyClient {
     /**
      * Constructor with {@link ClientConf}.
      *
-     * @param host Log proxy hostname name or ip.
+     * @param host Log proxy hostname name or ip, "unix://path" of a unix domain socket, or a
+     *     comma-separated list of them.
      * @param port Log proxy port.
      * @param config {@link AbstractConnectionConfig} used to create the {@link ClientStream}.
      * @param clientConf {@link ClientConf} used to create netty handler.
@@ -67,7 +69,8 @@ public class LogProxyClient {
     /**
      * Constructor without {@link ClientConf}.
      *
-     * @param host Log proxy hostname name or ip.
+     * @param host Log proxy hostname name or ip, "unix://path" of a unix domain socket, or a
+     *     comma-separated list of them.
      * @param port Log proxy port.
      * @param config {@link AbstractConnectionConfig} used to create the {@link ClientStream}.
      */
@@ -107,4 +110,13 @@ public class LogProxyClient {
     public synchronized void addStatusListener(StatusListener statusListener) {
         stream.addStatusListener(statusListener);
     }
+
+    /**
+     * Add a {@link TransactionListener} to {@link #stream}.
+     *
+     * @param transactionListener A {@link TransactionListener}.
+     */
+    public synchronized void addTransactionListener(TransactionListener transactionListener) {
+        stream.addTransactionListener(transactionListener);
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oceanbase.clogproxy.client.codec;
+
+import com.oceanbase.clogproxy.client.exception.LogProxyClientException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * A compression codec of record blocks, identified by the code of the compress type in the record
+ * data packets.
+ *
+ * <p>Codecs are registered in {@link CompressionCodecs}. Besides the built-in ones, third-party
+ * codecs can be registered by {@link CompressionCodecs#register(CompressionCodec)} or by listing
+ * the implementation class in {@code
+ * META-INF/services/com.oceanbase.clogproxy.client.codec.CompressionCodec}. Implementations must be
+ * thread-safe, as one instance is shared by all the channels.
+ */
+public interface CompressionCodec {
+
+    /**
+     * Get the code of the compress type handled by this codec.
+     *
+     * @return The code of the compress type.
+     */
+    int code();
+
+    /**
+     * Get the name of this codec, which is used to select it in the handshake.
+     *
+     * @return The name of this codec.
+     */
+    String name();
+
+    /**
+     * Decompress a block into the destination buffer.
+     *
+     * @param src The buffer that holds the compressed block in its readable bytes. Its indexes are
+     *     not modified.
+     * @param dest The buffer to write to, which has at least {@code rawLen} writable bytes. Its
+     *     writer index is not modified.
+     * @param rawLen The length of the decompressed block.
+     * @return The number of compressed bytes read from {@code src}.
+     * @throws LogProxyClientException If the block is malformed.
+     */
+    int decompress(ByteBuf src, ByteBuf dest, int rawLen) throws LogProxyClientException;
+
+    /**
+     * Compress a block, it is used by tools and tests which produce record data packets.
+     *
+     * @param src The buffer that holds the block in its readable bytes. Its indexes are not
+     *     modified.
+     * @param allocator The allocator of the returned buffer.
+     * @return A {@link ByteBuf} holding the compressed block, which is owned by the caller.
+     */
+    ByteBuf compress(ByteBuf src, ByteBufAllocator allocator);
+}
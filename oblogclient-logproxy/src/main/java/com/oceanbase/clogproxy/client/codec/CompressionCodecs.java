@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oceanbase.clogproxy.client.codec;
+
+import com.oceanbase.clogproxy.client.enums.Lz4Implementation;
+import com.oceanbase.clogproxy.common.packet.CompressType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The registry of {@link CompressionCodec}s keyed by the code of compress type.
+ *
+ * <p>{@link Lz4Codec} is always registered. {@link ZstdCodec} is registered if zstd-jni is on the
+ * classpath. Codecs declared as {@link ServiceLoader} providers are registered after the built-in
+ * ones, so they can replace them.
+ */
+public final class CompressionCodecs {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressionCodecs.class);
+
+    /** Registered codecs keyed by the code of compress type. */
+    private static final ConcurrentMap<Integer, CompressionCodec> CODECS =
+            new ConcurrentHashMap<>();
+
+    static {
+        register(Lz4Codec.of(Lz4Implementation.FASTEST));
+        try {
+            register(new ZstdCodec());
+        } catch (LinkageError e) {
+            logger.debug("Zstd codec is not available", e);
+        }
+        Iterator<CompressionCodec> iterator = ServiceLoader.load(CompressionCodec.class).iterator();
+        while (true) {
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                register(iterator.next());
+            } catch (ServiceConfigurationError e) {
+                logger.warn("Failed to load compression codec", e);
+            }
+        }
+    }
+
+    private CompressionCodecs() {}
+
+    /**
+     * Register a codec, which replaces the one registered with the same code.
+     *
+     * @param codec A {@link CompressionCodec} instance.
+     */
+    public static void register(CompressionCodec codec) {
+        CompressionCodec previous = CODECS.put(codec.code(), codec);
+        if (previous != null && previous != codec) {
+            logger.info(
+                    "Compression codec {} is replaced by {} for code {}",
+                    previous.getClass().getName(),
+                    codec.getClass().getName(),
+                    codec.code());
+        }
+    }
+
+    /**
+     * Get the codec of a compress type code.
+     *
+     * @param code The code of compress type.
+     * @return The {@link CompressionCodec} instance, or null if there is no codec for the code.
+     */
+    public static CompressionCodec get(int code) {
+        return CODECS.get(code);
+    }
+
+    /**
+     * Check whether a compress type can be decompressed by the client.
+     *
+     * @param compressType A {@link CompressType}.
+     * @return True if it is {@link CompressType#NONE} or a codec is registered for it.
+     */
+    public static boolean isSupported(CompressType compressType) {
+        return compressType == CompressType.NONE || CODECS.containsKey(compressType.code());
+    }
+}
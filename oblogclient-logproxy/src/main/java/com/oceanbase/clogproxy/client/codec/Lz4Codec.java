@@ -0,0 +1,252 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.codec;
+
+import com.oceanbase.clogproxy.client.enums.ErrorCode;
+import com.oceanbase.clogproxy.client.enums.Lz4Implementation;
+import com.oceanbase.clogproxy.client.exception.LogProxyClientException;
+import com.oceanbase.clogproxy.common.packet.CompressType;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/** The codec of {@link CompressType#LZ4}, which is the default compress type of log proxy. */
+public class Lz4Codec implements CompressionCodec {
+
+    private static final Logger logger = LoggerFactory.getLogger(Lz4Codec.class);
+
+    /** Length of the block used by {@link #selfCheck()}. */
+    private static final int SELF_CHECK_BLOCK_LENGTH = 1024 * 1024;
+
+    /** Duration of {@link #selfCheck()} in milliseconds. */
+    private static final long SELF_CHECK_DURATION_MS = 500;
+
+    /** Shared instances keyed by the implementation option. */
+    private static final ConcurrentMap<Lz4Implementation, Lz4Codec> INSTANCES =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Decompression throughput in MB/s measured by {@link #selfCheck()} for each implementation.
+     */
+    private static final ConcurrentMap<Lz4Implementation, Double> THROUGHPUTS =
+            new ConcurrentHashMap<>();
+
+    /** The implementation in use, which is never {@link Lz4Implementation#FASTEST}. */
+    private final Lz4Implementation implementation;
+
+    /** A {@link LZ4FastDecompressor} instance. */
+    private final LZ4FastDecompressor decompressor;
+
+    /** A {@link LZ4Compressor} instance. */
+    private final LZ4Compressor compressor;
+
+    /** Constructor with the fastest available {@link LZ4Factory}. */
+    public Lz4Codec() {
+        this(LZ4Factory.fastestInstance());
+    }
+
+    /**
+     * Constructor with a specified {@link LZ4Factory}.
+     *
+     * @param factory A {@link LZ4Factory} instance.
+     */
+    public Lz4Codec(LZ4Factory factory) {
+        this.implementation = implementationOf(factory);
+        this.decompressor = factory.fastDecompressor();
+        this.compressor = factory.fastCompressor();
+    }
+
+    /**
+     * Get the shared instance of an implementation option.
+     *
+     * @param implementation A {@link Lz4Implementation}.
+     * @return The shared {@link Lz4Codec} instance.
+     * @throws LogProxyClientException If the implementation is not available on the host.
+     */
+    public static Lz4Codec of(Lz4Implementation implementation) throws LogProxyClientException {
+        return INSTANCES.computeIfAbsent(implementation, Lz4Codec::create);
+    }
+
+    private static Lz4Codec create(Lz4Implementation implementation) {
+        LZ4Factory factory;
+        try {
+            switch (implementation) {
+                case JNI:
+                    factory = LZ4Factory.nativeInstance();
+                    break;
+                case JAVA_UNSAFE:
+                    factory = LZ4Factory.unsafeInstance();
+                    break;
+                case JAVA_SAFE:
+                    factory = LZ4Factory.safeInstance();
+                    break;
+                default:
+                    factory = LZ4Factory.fastestInstance();
+            }
+        } catch (Throwable t) {
+            throw new LogProxyClientException(
+                    ErrorCode.E_COMPRESS_TYPE,
+                    "LZ4 implementation " + implementation + " is not available",
+                    t);
+        }
+        Lz4Codec codec = new Lz4Codec(factory);
+        if (implementation == Lz4Implementation.FASTEST
+                && codec.implementation != Lz4Implementation.JNI) {
+            logger.warn(
+                    "LZ4 JNI implementation is not available, fall back to {}",
+                    codec.implementation);
+        } else {
+            logger.info("LZ4 codec uses {} implementation", codec.implementation);
+        }
+        return codec;
+    }
+
+    private static Lz4Implementation implementationOf(LZ4Factory factory) {
+        String name = factory.toString();
+        if (name.endsWith(":JNI")) {
+            return Lz4Implementation.JNI;
+        }
+        if (name.endsWith(":JavaUnsafe")) {
+            return Lz4Implementation.JAVA_UNSAFE;
+        }
+        return Lz4Implementation.JAVA_SAFE;
+    }
+
+    /**
+     * Get the implementation in use.
+     *
+     * @return The {@link Lz4Implementation} in use, which is never {@link
+     *     Lz4Implementation#FASTEST}.
+     */
+    public Lz4Implementation implementation() {
+        return implementation;
+    }
+
+    /**
+     * Measure the decompression throughput of this codec on the host with a synthetic block of
+     * records. The measurement takes about one second, and runs only once per process for each
+     * implementation, so the instances of the same implementation share the result.
+     *
+     * @return The decompression throughput in MB/s.
+     */
+    public double selfCheck() {
+        return THROUGHPUTS.computeIfAbsent(implementation, key -> measure());
+    }
+
+    /**
+     * Measure the decompression throughput, see {@link #selfCheck()}.
+     *
+     * @return The decompression throughput in MB/s.
+     */
+    private double measure() {
+        // text of a limited vocabulary, which compresses like the row images of records
+        byte[][] words = new byte[64][];
+        Random random = new Random(0);
+        for (int i = 0; i < words.length; i++) {
+            words[i] =
+                    (Long.toString(random.nextLong() & 0xffffffL, 36) + '\0')
+                            .getBytes(StandardCharsets.UTF_8);
+        }
+        ByteBuf raw = Unpooled.buffer(SELF_CHECK_BLOCK_LENGTH);
+        while (raw.isWritable()) {
+            byte[] word = words[random.nextInt(words.length)];
+            raw.writeBytes(word, 0, Math.min(word.length, raw.writableBytes()));
+        }
+        ByteBuf compressed = compress(raw, UnpooledByteBufAllocator.DEFAULT);
+        double ratio = raw.readableBytes() / (double) compressed.readableBytes();
+        raw.release();
+        ByteBuf dest = Unpooled.buffer(SELF_CHECK_BLOCK_LENGTH);
+        double throughput;
+        try {
+            // warm up for the same duration before measuring
+            long bytes = 0;
+            long start = System.nanoTime();
+            long warmUpEnd = start + TimeUnit.MILLISECONDS.toNanos(SELF_CHECK_DURATION_MS);
+            long end = warmUpEnd + TimeUnit.MILLISECONDS.toNanos(SELF_CHECK_DURATION_MS);
+            long now = start;
+            while (now < end) {
+                decompress(compressed, dest, SELF_CHECK_BLOCK_LENGTH);
+                now = System.nanoTime();
+                if (now >= warmUpEnd) {
+                    if (bytes == 0) {
+                        start = now;
+                    }
+                    bytes += SELF_CHECK_BLOCK_LENGTH;
+                }
+            }
+            throughput = bytes / 1024.0 / 1024.0 / ((now - start) / 1e9);
+        } finally {
+            compressed.release();
+            dest.release();
+        }
+        logger.info(
+                "LZ4 self-check: {} implementation decompresses {} MB/s, compression ratio {}",
+                implementation,
+                String.format("%.1f", throughput),
+                String.format("%.2f", ratio));
+        return throughput;
+    }
+
+    @Override
+    public int code() {
+        return CompressType.LZ4.code();
+    }
+
+    @Override
+    public String name() {
+        return "lz4";
+    }
+
+    @Override
+    public int decompress(ByteBuf src, ByteBuf dest, int rawLen) {
+        return decompressor.decompress(
+                src.nioBuffer(), 0, dest.nioBuffer(dest.writerIndex(), rawLen), 0, rawLen);
+    }
+
+    @Override
+    public ByteBuf compress(ByteBuf src, ByteBufAllocator allocator) {
+        int maxLength = compressor.maxCompressedLength(src.readableBytes());
+        ByteBuf dest = allocator.buffer(maxLength);
+        try {
+            int length =
+                    compressor.compress(
+                            src.nioBuffer(),
+                            0,
+                            src.readableBytes(),
+                            dest.nioBuffer(0, maxLength),
+                            0,
+                            maxLength);
+            return dest.writerIndex(length);
+        } catch (RuntimeException e) {
+            dest.release();
+            throw e;
+        }
+    }
+}
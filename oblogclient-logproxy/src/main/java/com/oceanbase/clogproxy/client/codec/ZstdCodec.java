@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oceanbase.clogproxy.client.codec;
+
+import com.oceanbase.clogproxy.client.enums.ErrorCode;
+import com.oceanbase.clogproxy.client.exception.LogProxyClientException;
+import com.oceanbase.clogproxy.common.packet.CompressType;
+
+import com.github.luben.zstd.Zstd;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The codec of {@link CompressType#ZSTD}, which trades some CPU for a better ratio than LZ4 and
+ * fits links where the bandwidth is the bottleneck.
+ *
+ * <p>It requires {@code com.github.luben:zstd-jni}, which is an optional dependency of this
+ * library, and is registered by {@link CompressionCodecs} only if the library is on the classpath.
+ */
+public class ZstdCodec implements CompressionCodec {
+
+    /** The compression level used by {@link #compress(ByteBuf, ByteBufAllocator)}. */
+    private final int level;
+
+    /** Constructor with the default compression level. */
+    public ZstdCodec() {
+        this(Zstd.defaultCompressionLevel());
+    }
+
+    /**
+     * Constructor with a specified compression level.
+     *
+     * @param level The compression level.
+     */
+    public ZstdCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public int code() {
+        return CompressType.ZSTD.code();
+    }
+
+    @Override
+    public String name() {
+        return "zstd";
+    }
+
+    @Override
+    public int decompress(ByteBuf src, ByteBuf dest, int rawLen) throws LogProxyClientException {
+        int srcLen = src.readableBytes();
+        long size;
+        if (src.hasArray() && dest.hasArray()) {
+            size =
+                    Zstd.decompressByteArray(
+                            dest.array(),
+                            dest.arrayOffset() + dest.writerIndex(),
+                            rawLen,
+                            src.array(),
+                            src.arrayOffset() + src.readerIndex(),
+                            srcLen);
+        } else if (isDirect(src) && isDirect(dest)) {
+            ByteBuffer in = src.nioBuffer();
+            ByteBuffer out = dest.nioBuffer(dest.writerIndex(), rawLen);
+            size =
+                    Zstd.decompressDirectByteBuffer(
+                            out, out.position(), rawLen, in, in.position(), srcLen);
+        } else {
+            byte[] out = new byte[rawLen];
+            size = Zstd.decompressByteArray(out, 0, rawLen, ByteBufUtil.getBytes(src), 0, srcLen);
+            dest.setBytes(dest.writerIndex(), out);
+        }
+        if (Zstd.isError(size)) {
+            throw new LogProxyClientException(
+                    ErrorCode.E_PARSE,
+                    "Failed to decompress zstd block: " + Zstd.getErrorName(size));
+        }
+        if (size != rawLen) {
+            throw new LogProxyClientException(
+                    ErrorCode.E_LEN,
+                    "decompressed length [" + size + "] is not expected [" + rawLen + "]");
+        }
+        return srcLen;
+    }
+
+    @Override
+    public ByteBuf compress(ByteBuf src, ByteBufAllocator allocator) {
+        byte[] compressed = Zstd.compress(ByteBufUtil.getBytes(src), level);
+        return allocator.buffer(compressed.length).writeBytes(compressed);
+    }
+
+    private static boolean isDirect(ByteBuf buf) {
+        return buf.isDirect() && buf.nioBufferCount() == 1;
+    }
+}
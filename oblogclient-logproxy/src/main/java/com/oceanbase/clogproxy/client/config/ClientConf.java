@@ -16,11 +16,20 @@
 
 package com.oceanbase.clogproxy.client.config;
 
+import com.oceanbase.clogproxy.client.codec.CompressionCodecs;
+import com.oceanbase.clogproxy.client.enums.ByteBufAllocatorType;
+import com.oceanbase.clogproxy.client.enums.Lz4Implementation;
+import com.oceanbase.clogproxy.client.enums.RecvBufAllocatorType;
+import com.oceanbase.clogproxy.client.enums.TransferQueueType;
+import com.oceanbase.clogproxy.client.enums.TransportType;
 import com.oceanbase.clogproxy.client.util.ClientUtil;
 import com.oceanbase.clogproxy.common.config.SharedConf;
+import com.oceanbase.clogproxy.common.packet.CompressType;
 import com.oceanbase.clogproxy.common.packet.ProtocolVersion;
 
+import io.netty.channel.EventLoopGroup;
 import io.netty.handler.ssl.SslContext;
+import io.netty.util.concurrent.EventExecutorGroup;
 
 import java.io.Serializable;
 
@@ -41,7 +50,10 @@ public class ClientConf extends SharedConf implements Serializable {
     /** Time to sleep in seconds when retrying. */
     private final int retryIntervalS;
 
-    /** Idle timeout in seconds for netty handler. */
+    /**
+     * Idle timeout in seconds for netty handler. The connection is reconnected if it makes no
+     * progress within the timeout, which adapts between this value and {@link #maxIdleTimeoutS}.
+     */
     private final int idleTimeoutS;
 
     /**
@@ -67,6 +79,204 @@ public class ClientConf extends SharedConf implements Serializable {
     /** Netty ssl context */
     private final SslContext sslContext;
 
+    /**
+     * Decompress record blocks into pooled buffers allocated from the channel allocator instead of
+     * fresh heap arrays. In this mode a record is only valid during {@link
+     * com.oceanbase.clogproxy.client.listener.RecordListener#notify}, and its buffer is released
+     * after that.
+     */
+    private final boolean pooledDecompressBuffer;
+
+    /**
+     * Number of threads of the netty worker event loop group, 1 by default as a client stream only
+     * has one connection at a time. 0 means the netty default which is twice the number of
+     * available processors. The shared groups are cached by this value, so clients with the same
+     * value share a group.
+     */
+    private final int workerThreads;
+
+    /**
+     * Create a worker event loop group with {@link #workerThreads} threads for the client instead
+     * of using a shared one. The group is shut down when the client is stopped.
+     */
+    private final boolean dedicatedWorkerGroup;
+
+    /**
+     * Worker event loop group supplied by the caller. It takes priority over {@link #workerThreads}
+     * and {@link #dedicatedWorkerGroup}, and its lifecycle is managed by the caller.
+     */
+    private final transient EventLoopGroup workerGroup;
+
+    /**
+     * Number of records in the transfer queue at which the channel stops reading from log proxy, -1
+     * means transferQueueSize.
+     */
+    private final int transferQueueHighWatermark;
+
+    /**
+     * Number of records in the transfer queue at which the channel resumes reading from log proxy,
+     * -1 means half of the high watermark.
+     */
+    private final int transferQueueLowWatermark;
+
+    /**
+     * Number of threads of the shared executor group used to decompress and parse record data, 0
+     * means these stages run on the netty worker thread. Clients with the same value share a group.
+     */
+    private final int decodeThreads;
+
+    /**
+     * Executor group supplied by the caller to decompress and parse record data. It takes priority
+     * over {@link #decodeThreads}, and its lifecycle is managed by the caller.
+     */
+    private final transient EventExecutorGroup decodeExecutor;
+
+    /**
+     * Decode the record data packets of a stream on all executors of the decode group at the same
+     * time, the records are still delivered in order. It only takes effect when {@link
+     * #decodeThreads} or {@link #decodeExecutor} is set.
+     */
+    private final boolean parallelDecode;
+
+    /** Size of the socket receive buffer (SO_RCVBUF) in bytes, 0 means the system default. */
+    private final int receiveBufferSize;
+
+    /** Type of the allocator which determines the size of the buffer used for each socket read. */
+    private final RecvBufAllocatorType recvBufAllocatorType;
+
+    /**
+     * Minimum size of the buffer used for each socket read, only used by {@link
+     * RecvBufAllocatorType#ADAPTIVE}.
+     */
+    private final int recvBufMinSize;
+
+    /**
+     * Initial size of the buffer used for each socket read, only used by {@link
+     * RecvBufAllocatorType#ADAPTIVE}.
+     */
+    private final int recvBufInitialSize;
+
+    /**
+     * Maximum size of the buffer used for each socket read, used by {@link
+     * RecvBufAllocatorType#ADAPTIVE} and {@link RecvBufAllocatorType#FIXED}.
+     */
+    private final int recvBufMaxSize;
+
+    /** Type of the buffer allocator of the channel. */
+    private final ByteBufAllocatorType byteBufAllocatorType;
+
+    /** Enable TCP_QUICKACK on the socket, only used by the epoll transport. */
+    private final boolean tcpQuickAck;
+
+    /**
+     * TCP_USER_TIMEOUT of the socket in milliseconds, 0 means the system default. Only used by the
+     * epoll transport.
+     */
+    private final int tcpUserTimeoutMs;
+
+    /**
+     * Transport type of the netty channel, it falls back to an available one if the native library
+     * is not available. It is not used when {@link #workerGroup} is set.
+     */
+    private final TransportType transportType;
+
+    /**
+     * Compress type of record data requested in the handshake, null to use the default of the log
+     * proxy. A codec must be registered for it in {@link CompressionCodecs}. It is appended to the
+     * configuration string as compress_type=&lt;codec name&gt; unless it is null or LZ4, which is
+     * the default of the log proxy.
+     */
+    private final CompressType compressType;
+
+    /**
+     * Implementation of the LZ4 codec. FASTEST falls back to a pure Java implementation silently if
+     * the JNI binding is not available, while the other values fail the client start if the
+     * implementation is not available.
+     */
+    private final Lz4Implementation lz4Implementation;
+
+    /**
+     * Flag of whether to measure the LZ4 decompression throughput of the host when the client
+     * starts. The result is logged and takes about one second to measure once per process for each
+     * implementation. It is skipped if the codec uses the JAVA_SAFE implementation.
+     */
+    private final boolean lz4SelfCheck;
+
+    /**
+     * Put the record data packets of protocol V2 into the transfer queue as they are received, and
+     * decompress and parse them on the thread that notifies the listeners. The transfer queue and
+     * its watermarks then count packets instead of records, and the decode executors are not used.
+     * As a packet holds many records, the memory of the queue is bounded by {@link
+     * #deferredDecodeMaxBytes} as well.
+     */
+    private final boolean deferredDecode;
+
+    /**
+     * Enable the client session cache of an OpenSSL sslContext, so that the reconnections resume
+     * the previous session instead of doing a full handshake. The JDK provider always caches client
+     * sessions.
+     */
+    private final boolean sslSessionCache;
+
+    /**
+     * Upper bound in seconds of the adaptive idle timeout. The timeout starts from idleTimeoutS and
+     * grows with the observed intervals between the data received, a value not greater than
+     * idleTimeoutS disables the adaptation.
+     */
+    private final int maxIdleTimeoutS;
+
+    /**
+     * Delay in milliseconds before racing the connection to the next endpoint when multiple
+     * endpoints of log proxy are given, the next attempt starts at once if the previous one fails.
+     */
+    private final int connectAttemptDelayMs;
+
+    /** Type of the queue which transfers records from the channel to the stream thread. */
+    private final TransferQueueType transferQueueType;
+
+    /**
+     * Max count of records delivered to the listeners in a batch, the checkpoint advances once per
+     * batch. A {@link com.oceanbase.clogproxy.client.listener.BatchRecordListener} receives the
+     * whole batch before the listeners added after it, while the other listeners still receive each
+     * record in turn.
+     */
+    private final int batchMaxRecords;
+
+    /**
+     * Max bytes of records in a batch, the batch is delivered once it reaches the limit. A non-
+     * positive value means no limit.
+     */
+    private final int batchMaxBytes;
+
+    /**
+     * Max time in milliseconds to wait for more records before delivering a batch that is not full,
+     * 0 means only the records already received are batched.
+     */
+    private final int batchLingerMs;
+
+    /**
+     * Count of lanes which notify the record listeners in parallel. Rows are dispatched by the hash
+     * of database, table and primary key values, so the rows of a key keep their order, while other
+     * records and the updates changing the primary key are delivered after all lanes complete the
+     * rows before them. The listeners must be thread-safe if it is positive, and 0 means the
+     * listeners run in the stream thread.
+     */
+    private final int dispatchLanes;
+
+    /**
+     * Flag of whether to run the client process thread and the dispatch lanes on virtual threads,
+     * it requires JDK 21 or later and falls back to platform threads otherwise.
+     */
+    private final boolean virtualThreads;
+
+    /**
+     * Compressed bytes of the record data packets in the transfer queue at which the channel stops
+     * reading in deferred decode mode, and it resumes reading when the bytes drop to half of it.
+     * The packet watermarks still apply, and 0 means no byte bound. The queue may exceed the bound
+     * by the last packet put into it.
+     */
+    private final long deferredDecodeMaxBytes;
+
     private ClientConf(
             int transferQueueSize,
             int connectTimeoutMs,
@@ -78,7 +288,39 @@ public class ClientConf extends SharedConf implements Serializable {
             int protocolVersion,
             String clientId,
             boolean ignoreUnknownRecordType,
-            SslContext sslContext) {
+            SslContext sslContext,
+            boolean pooledDecompressBuffer,
+            int workerThreads,
+            boolean dedicatedWorkerGroup,
+            EventLoopGroup workerGroup,
+            int transferQueueHighWatermark,
+            int transferQueueLowWatermark,
+            int decodeThreads,
+            EventExecutorGroup decodeExecutor,
+            boolean parallelDecode,
+            int receiveBufferSize,
+            RecvBufAllocatorType recvBufAllocatorType,
+            int recvBufMinSize,
+            int recvBufInitialSize,
+            int recvBufMaxSize,
+            ByteBufAllocatorType byteBufAllocatorType,
+            boolean tcpQuickAck,
+            int tcpUserTimeoutMs,
+            TransportType transportType,
+            CompressType compressType,
+            Lz4Implementation lz4Implementation,
+            boolean lz4SelfCheck,
+            boolean deferredDecode,
+            boolean sslSessionCache,
+            int maxIdleTimeoutS,
+            int connectAttemptDelayMs,
+            TransferQueueType transferQueueType,
+            int batchMaxRecords,
+            int batchMaxBytes,
+            int batchLingerMs,
+            int dispatchLanes,
+            boolean virtualThreads,
+            long deferredDecodeMaxBytes) {
         this.transferQueueSize = transferQueueSize;
         this.connectTimeoutMs = connectTimeoutMs;
         this.readWaitTimeMs = readWaitTimeMs;
@@ -90,6 +332,38 @@ public class ClientConf extends SharedConf implements Serializable {
         this.clientId = clientId;
         this.ignoreUnknownRecordType = ignoreUnknownRecordType;
         this.sslContext = sslContext;
+        this.pooledDecompressBuffer = pooledDecompressBuffer;
+        this.workerThreads = workerThreads;
+        this.dedicatedWorkerGroup = dedicatedWorkerGroup;
+        this.workerGroup = workerGroup;
+        this.transferQueueHighWatermark = transferQueueHighWatermark;
+        this.transferQueueLowWatermark = transferQueueLowWatermark;
+        this.decodeThreads = decodeThreads;
+        this.decodeExecutor = decodeExecutor;
+        this.parallelDecode = parallelDecode;
+        this.receiveBufferSize = receiveBufferSize;
+        this.recvBufAllocatorType = recvBufAllocatorType;
+        this.recvBufMinSize = recvBufMinSize;
+        this.recvBufInitialSize = recvBufInitialSize;
+        this.recvBufMaxSize = recvBufMaxSize;
+        this.byteBufAllocatorType = byteBufAllocatorType;
+        this.tcpQuickAck = tcpQuickAck;
+        this.tcpUserTimeoutMs = tcpUserTimeoutMs;
+        this.transportType = transportType;
+        this.compressType = compressType;
+        this.lz4Implementation = lz4Implementation;
+        this.lz4SelfCheck = lz4SelfCheck;
+        this.deferredDecode = deferredDecode;
+        this.sslSessionCache = sslSessionCache;
+        this.maxIdleTimeoutS = maxIdleTimeoutS;
+        this.connectAttemptDelayMs = connectAttemptDelayMs;
+        this.transferQueueType = transferQueueType;
+        this.batchMaxRecords = batchMaxRecords;
+        this.batchMaxBytes = batchMaxBytes;
+        this.batchLingerMs = batchLingerMs;
+        this.dispatchLanes = dispatchLanes;
+        this.virtualThreads = virtualThreads;
+        this.deferredDecodeMaxBytes = deferredDecodeMaxBytes;
     }
 
     public int getTransferQueueSize() {
@@ -136,6 +410,134 @@ public class ClientConf extends SharedConf implements Serializable {
         return sslContext;
     }
 
+    public boolean isPooledDecompressBuffer() {
+        return pooledDecompressBuffer;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public boolean isDedicatedWorkerGroup() {
+        return dedicatedWorkerGroup;
+    }
+
+    public EventLoopGroup getWorkerGroup() {
+        return workerGroup;
+    }
+
+    public int getTransferQueueHighWatermark() {
+        return transferQueueHighWatermark;
+    }
+
+    public int getTransferQueueLowWatermark() {
+        return transferQueueLowWatermark;
+    }
+
+    public int getDecodeThreads() {
+        return decodeThreads;
+    }
+
+    public EventExecutorGroup getDecodeExecutor() {
+        return decodeExecutor;
+    }
+
+    public boolean isParallelDecode() {
+        return parallelDecode;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public RecvBufAllocatorType getRecvBufAllocatorType() {
+        return recvBufAllocatorType;
+    }
+
+    public int getRecvBufMinSize() {
+        return recvBufMinSize;
+    }
+
+    public int getRecvBufInitialSize() {
+        return recvBufInitialSize;
+    }
+
+    public int getRecvBufMaxSize() {
+        return recvBufMaxSize;
+    }
+
+    public ByteBufAllocatorType getByteBufAllocatorType() {
+        return byteBufAllocatorType;
+    }
+
+    public boolean isTcpQuickAck() {
+        return tcpQuickAck;
+    }
+
+    public int getTcpUserTimeoutMs() {
+        return tcpUserTimeoutMs;
+    }
+
+    public TransportType getTransportType() {
+        return transportType;
+    }
+
+    public CompressType getCompressType() {
+        return compressType;
+    }
+
+    public Lz4Implementation getLz4Implementation() {
+        return lz4Implementation;
+    }
+
+    public boolean isLz4SelfCheck() {
+        return lz4SelfCheck;
+    }
+
+    public boolean isDeferredDecode() {
+        return deferredDecode;
+    }
+
+    public boolean isSslSessionCache() {
+        return sslSessionCache;
+    }
+
+    public int getMaxIdleTimeoutS() {
+        return maxIdleTimeoutS;
+    }
+
+    public int getConnectAttemptDelayMs() {
+        return connectAttemptDelayMs;
+    }
+
+    public TransferQueueType getTransferQueueType() {
+        return transferQueueType;
+    }
+
+    public int getBatchMaxRecords() {
+        return batchMaxRecords;
+    }
+
+    public int getBatchMaxBytes() {
+        return batchMaxBytes;
+    }
+
+    public int getBatchLingerMs() {
+        return batchLingerMs;
+    }
+
+    public int getDispatchLanes() {
+        return dispatchLanes;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public long getDeferredDecodeMaxBytes() {
+        return deferredDecodeMaxBytes;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -153,6 +555,38 @@ public class ClientConf extends SharedConf implements Serializable {
         private String clientId = ClientUtil.generateClientId();
         private boolean ignoreUnknownRecordType = false;
         private SslContext sslContext = null;
+        private boolean pooledDecompressBuffer = false;
+        private int workerThreads = 1;
+        private boolean dedicatedWorkerGroup = false;
+        private EventLoopGroup workerGroup = null;
+        private int transferQueueHighWatermark = -1;
+        private int transferQueueLowWatermark = -1;
+        private int decodeThreads = 0;
+        private EventExecutorGroup decodeExecutor = null;
+        private boolean parallelDecode = false;
+        private int receiveBufferSize = 0;
+        private RecvBufAllocatorType recvBufAllocatorType = RecvBufAllocatorType.DEFAULT;
+        private int recvBufMinSize = 64;
+        private int recvBufInitialSize = 2048;
+        private int recvBufMaxSize = 65536;
+        private ByteBufAllocatorType byteBufAllocatorType = ByteBufAllocatorType.DEFAULT;
+        private boolean tcpQuickAck = false;
+        private int tcpUserTimeoutMs = 0;
+        private TransportType transportType = TransportType.AUTO;
+        private CompressType compressType = null;
+        private Lz4Implementation lz4Implementation = Lz4Implementation.FASTEST;
+        private boolean lz4SelfCheck = false;
+        private boolean deferredDecode = false;
+        private boolean sslSessionCache = true;
+        private int maxIdleTimeoutS = 60;
+        private int connectAttemptDelayMs = 250;
+        private TransferQueueType transferQueueType = TransferQueueType.SPSC_RING;
+        private int batchMaxRecords = 1024;
+        private int batchMaxBytes = 0;
+        private int batchLingerMs = 0;
+        private int dispatchLanes = 0;
+        private boolean virtualThreads = false;
+        private long deferredDecodeMaxBytes = 64L * 1024 * 1024;
 
         public Builder transferQueueSize(int transferQueueSize) {
             this.transferQueueSize = transferQueueSize;
@@ -209,7 +643,179 @@ public class ClientConf extends SharedConf implements Serializable {
             return this;
         }
 
+        public Builder pooledDecompressBuffer(boolean pooledDecompressBuffer) {
+            this.pooledDecompressBuffer = pooledDecompressBuffer;
+            return this;
+        }
+
+        public Builder workerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+            return this;
+        }
+
+        public Builder dedicatedWorkerGroup(boolean dedicatedWorkerGroup) {
+            this.dedicatedWorkerGroup = dedicatedWorkerGroup;
+            return this;
+        }
+
+        public Builder workerGroup(EventLoopGroup workerGroup) {
+            this.workerGroup = workerGroup;
+            return this;
+        }
+
+        public Builder transferQueueHighWatermark(int transferQueueHighWatermark) {
+            this.transferQueueHighWatermark = transferQueueHighWatermark;
+            return this;
+        }
+
+        public Builder transferQueueLowWatermark(int transferQueueLowWatermark) {
+            this.transferQueueLowWatermark = transferQueueLowWatermark;
+            return this;
+        }
+
+        public Builder decodeThreads(int decodeThreads) {
+            this.decodeThreads = decodeThreads;
+            return this;
+        }
+
+        public Builder decodeExecutor(EventExecutorGroup decodeExecutor) {
+            this.decodeExecutor = decodeExecutor;
+            return this;
+        }
+
+        public Builder parallelDecode(boolean parallelDecode) {
+            this.parallelDecode = parallelDecode;
+            return this;
+        }
+
+        public Builder receiveBufferSize(int receiveBufferSize) {
+            this.receiveBufferSize = receiveBufferSize;
+            return this;
+        }
+
+        public Builder recvBufAllocatorType(RecvBufAllocatorType recvBufAllocatorType) {
+            this.recvBufAllocatorType = recvBufAllocatorType;
+            return this;
+        }
+
+        public Builder recvBufMinSize(int recvBufMinSize) {
+            this.recvBufMinSize = recvBufMinSize;
+            return this;
+        }
+
+        public Builder recvBufInitialSize(int recvBufInitialSize) {
+            this.recvBufInitialSize = recvBufInitialSize;
+            return this;
+        }
+
+        public Builder recvBufMaxSize(int recvBufMaxSize) {
+            this.recvBufMaxSize = recvBufMaxSize;
+            return this;
+        }
+
+        public Builder byteBufAllocatorType(ByteBufAllocatorType byteBufAllocatorType) {
+            this.byteBufAllocatorType = byteBufAllocatorType;
+            return this;
+        }
+
+        public Builder tcpQuickAck(boolean tcpQuickAck) {
+            this.tcpQuickAck = tcpQuickAck;
+            return this;
+        }
+
+        public Builder tcpUserTimeoutMs(int tcpUserTimeoutMs) {
+            this.tcpUserTimeoutMs = tcpUserTimeoutMs;
+            return this;
+        }
+
+        public Builder transportType(TransportType transportType) {
+            this.transportType = transportType;
+            return this;
+        }
+
+        public Builder compressType(CompressType compressType) {
+            this.compressType = compressType;
+            return this;
+        }
+
+        public Builder lz4Implementation(Lz4Implementation lz4Implementation) {
+            this.lz4Implementation = lz4Implementation;
+            return this;
+        }
+
+        public Builder lz4SelfCheck(boolean lz4SelfCheck) {
+            this.lz4SelfCheck = lz4SelfCheck;
+            return this;
+        }
+
+        public Builder deferredDecode(boolean deferredDecode) {
+            this.deferredDecode = deferredDecode;
+            return this;
+        }
+
+        public Builder sslSessionCache(boolean sslSessionCache) {
+            this.sslSessionCache = sslSessionCache;
+            return this;
+        }
+
+        public Builder maxIdleTimeoutS(int maxIdleTimeoutS) {
+            this.maxIdleTimeoutS = maxIdleTimeoutS;
+            return this;
+        }
+
+        public Builder connectAttemptDelayMs(int connectAttemptDelayMs) {
+            this.connectAttemptDelayMs = connectAttemptDelayMs;
+            return this;
+        }
+
+        public Builder transferQueueType(TransferQueueType transferQueueType) {
+            this.transferQueueType = transferQueueType;
+            return this;
+        }
+
+        public Builder batchMaxRecords(int batchMaxRecords) {
+            this.batchMaxRecords = batchMaxRecords;
+            return this;
+        }
+
+        public Builder batchMaxBytes(int batchMaxBytes) {
+            this.batchMaxBytes = batchMaxBytes;
+            return this;
+        }
+
+        public Builder batchLingerMs(int batchLingerMs) {
+            this.batchLingerMs = batchLingerMs;
+            return this;
+        }
+
+        public Builder dispatchLanes(int dispatchLanes) {
+            this.dispatchLanes = dispatchLanes;
+            return this;
+        }
+
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        public Builder deferredDecodeMaxBytes(long deferredDecodeMaxBytes) {
+            this.deferredDecodeMaxBytes = deferredDecodeMaxBytes;
+            return this;
+        }
+
         public ClientConf build() {
+            if (compressType != null && !CompressionCodecs.isSupported(compressType)) {
+                throw new IllegalArgumentException(
+                        "No compression codec registered for " + compressType);
+            }
+            int highWatermark =
+                    transferQueueHighWatermark < 0
+                            ? transferQueueSize
+                            : Math.min(transferQueueHighWatermark, transferQueueSize);
+            int lowWatermark =
+                    transferQueueLowWatermark < 0
+                            ? highWatermark / 2
+                            : Math.min(transferQueueLowWatermark, highWatermark);
             return new ClientConf(
                     transferQueueSize,
                     connectTimeoutMs,
@@ -221,7 +827,39 @@ public class ClientConf extends SharedConf implements Serializable {
                     protocolVersion,
                     clientId,
                     ignoreUnknownRecordType,
-                    sslContext);
+                    sslContext,
+                    pooledDecompressBuffer,
+                    workerThreads,
+                    dedicatedWorkerGroup,
+                    workerGroup,
+                    highWatermark,
+                    lowWatermark,
+                    decodeThreads,
+                    decodeExecutor,
+                    parallelDecode,
+                    receiveBufferSize,
+                    recvBufAllocatorType,
+                    recvBufMinSize,
+                    recvBufInitialSize,
+                    recvBufMaxSize,
+                    byteBufAllocatorType,
+                    tcpQuickAck,
+                    tcpUserTimeoutMs,
+                    transportType,
+                    compressType,
+                    lz4Implementation,
+                    lz4SelfCheck,
+                    deferredDecode,
+                    sslSessionCache,
+                    maxIdleTimeoutS,
+                    connectAttemptDelayMs,
+                    transferQueueType,
+                    batchMaxRecords,
+                    batchMaxBytes,
+                    batchLingerMs,
+                    dispatchLanes,
+                    virtualThreads,
+                    deferredDecodeMaxBytes);
         }
     }
 }
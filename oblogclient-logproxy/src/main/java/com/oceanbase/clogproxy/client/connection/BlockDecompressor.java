@@ -0,0 +1,115 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.codec.CompressionCodec;
+import com.oceanbase.clogproxy.client.codec.CompressionCodecs;
+import com.oceanbase.clogproxy.client.enums.ErrorCode;
+import com.oceanbase.clogproxy.client.exception.LogProxyClientException;
+import com.oceanbase.clogproxy.common.packet.CompressType;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+
+/**
+ * This class decompresses record blocks into {@link ByteBuf}s with the {@link CompressionCodec}
+ * registered for the compress type. The output buffer is allocated from the channel's {@link
+ * ByteBufAllocator} when pooled mode is enabled, or wraps a fresh heap array otherwise.
+ *
+ * <p>The returned buffer is reference-counted. In pooled mode the caller owns one reference and
+ * must release it once the block is split, and every record decoded from the block holds a retained
+ * slice of it until the record is dispatched. In unpooled mode the block is a plain heap buffer
+ * that is left to the garbage collector.
+ */
+class BlockDecompressor {
+
+    /** The codec of LZ4 blocks, or null to use the one registered in {@link CompressionCodecs}. */
+    private final CompressionCodec lz4Codec;
+
+    /** The allocator used in pooled mode. */
+    private final ByteBufAllocator allocator;
+
+    /** Flag of whether to decompress into pooled buffers. */
+    private final boolean pooled;
+
+    /**
+     * Sole constructor.
+     *
+     * @param lz4Codec The codec of LZ4 blocks, or null to use the registered one.
+     * @param allocator The allocator of the channel.
+     * @param pooled Flag of whether to decompress into buffers allocated by the allocator.
+     */
+    BlockDecompressor(CompressionCodec lz4Codec, ByteBufAllocator allocator, boolean pooled) {
+        this.lz4Codec = lz4Codec;
+        this.allocator = allocator;
+        this.pooled = pooled;
+    }
+
+    /**
+     * Copy an uncompressed block into a buffer owned by the caller.
+     *
+     * @param src The buffer that holds the block in its readable bytes.
+     * @return A {@link ByteBuf} holding a copy of the block.
+     */
+    ByteBuf copy(ByteBuf src) {
+        int length = src.readableBytes();
+        ByteBuf dest = pooled ? allocator.buffer(length, length) : Unpooled.buffer(length, length);
+        return dest.writeBytes(src, src.readerIndex(), length);
+    }
+
+    /**
+     * Decompress a block.
+     *
+     * @param compressType The code of the compress type of the block.
+     * @param src The buffer that holds the compressed block in its readable bytes.
+     * @param compressedLen The expected length of the compressed block.
+     * @param rawLen The length of the decompressed block.
+     * @return A {@link ByteBuf} holding the decompressed block.
+     * @throws LogProxyClientException If the compress type is not supported or the compressed
+     *     length is not expected.
+     */
+    ByteBuf decompress(int compressType, ByteBuf src, int compressedLen, int rawLen)
+            throws LogProxyClientException {
+        CompressionCodec codec =
+                compressType == CompressType.LZ4.code() && lz4Codec != null
+                        ? lz4Codec
+                        : CompressionCodecs.get(compressType);
+        if (codec == null) {
+            throw new LogProxyClientException(
+                    ErrorCode.E_COMPRESS_TYPE, "Unsupported compress type: " + compressType);
+        }
+        ByteBuf dest = pooled ? allocator.buffer(rawLen, rawLen) : Unpooled.buffer(rawLen, rawLen);
+        try {
+            int decompress = codec.decompress(src, dest, rawLen);
+            if (decompress != compressedLen) {
+                throw new LogProxyClientException(
+                        ErrorCode.E_LEN,
+                        "decompressed length ["
+                                + decompress
+                                + "] is not expected ["
+                                + compressedLen
+                                + "]");
+            }
+            dest.writerIndex(rawLen);
+            return dest;
+        } catch (RuntimeException e) {
+            dest.release();
+            throw e;
+        }
+    }
+}
@@ -16,8 +16,11 @@
 
 package com.oceanbase.clogproxy.client.connection;
 
+import com.oceanbase.clogproxy.client.codec.CompressionCodecs;
+import com.oceanbase.clogproxy.client.codec.Lz4Codec;
 import com.oceanbase.clogproxy.client.config.ClientConf;
 import com.oceanbase.clogproxy.client.enums.ErrorCode;
+import com.oceanbase.clogproxy.client.enums.Lz4Implementation;
 import com.oceanbase.clogproxy.client.exception.LogProxyClientException;
 import com.oceanbase.clogproxy.client.util.ClientUtil;
 import com.oceanbase.clogproxy.common.packet.CompressType;
@@ -25,23 +28,34 @@ import com.oceanbase.clogproxy.common.packet.HeaderType;
 import com.oceanbase.clogproxy.common.packet.ProtocolVersion;
 import com.oceanbase.clogproxy.common.packet.protocol.LogProxyProto;
 import com.oceanbase.clogproxy.common.util.NetworkUtil;
-import com.oceanbase.oms.logmessage.LogMessage;
 
+import com.google.protobuf.ByteOutput;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnsafeByteOperations;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
-import io.netty.handler.codec.ByteToMessageDecoder;
-import io.netty.handler.codec.ByteToMessageDecoder.Cumulator;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslHandshakeCompletionEvent;
 import io.netty.handler.timeout.IdleStateEvent;
-import net.jpountz.lz4.LZ4Factory;
-import net.jpountz.lz4.LZ4FastDecompressor;
-import org.apache.commons.lang3.Conversion;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.net.ssl.SSLSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /** This is an implementation class of {@link ChannelInboundHandlerAdapter}. */
 public class ClientHandler extends ChannelInboundHandlerAdapter {
@@ -54,9 +68,15 @@ public class ClientHandler extends ChannelInboundHandlerAdapter {
     /** Client ip address. */
     private static final String CLIENT_IP = NetworkUtil.getLocalIp();
 
+    /** Key of the compress type in the configuration string of handshake. */
+    static final String COMPRESS_TYPE_KEY = "compress_type";
+
     /** Length of packet header. */
     private static final int HEAD_LENGTH = 7;
 
+    /** Maximum number of record data packets submitted to {@link #decodeGroup} at a time. */
+    private static final int MAX_DECODING_PACKETS = 16;
+
     /** A client stream. */
     private ClientStream stream;
 
@@ -88,8 +108,8 @@ public class ClientHandler extends ChannelInboundHandlerAdapter {
     /** Handshake state. */
     private HandshakeState state = HandshakeState.PB_HEAD;
 
-    /** A {@link Cumulator} instance. */
-    private final Cumulator cumulator = ByteToMessageDecoder.MERGE_CUMULATOR;
+    /** A {@link FrameCumulator} instance. */
+    private final FrameCumulator cumulator = new FrameCumulator();
 
     /** A {@link ByteBuf} used for channel reading. */
     ByteBuf buffer;
@@ -109,11 +129,41 @@ public class ClientHandler extends ChannelInboundHandlerAdapter {
     /** The length of message body. */
     private int dataLength = 0;
 
-    /** A {@link LZ4Factory} instance. */
-    LZ4Factory factory = LZ4Factory.fastestInstance();
+    /** A {@link BlockDecompressor} instance. */
+    private BlockDecompressor decompressor;
+
+    /** A {@link RecordSink} that moves records into {@link #recordQueue}. */
+    private RecordSink sink;
+
+    /**
+     * The executor group to decompress and parse record data, or null if it is done in the event
+     * loop.
+     */
+    private EventExecutorGroup decodeGroup;
+
+    /** The executor of {@link #decodeGroup} used for all packets when parallel decode is off. */
+    private EventExecutor decodeExecutor;
 
-    /** A {@link LZ4FastDecompressor} instance. */
-    LZ4FastDecompressor fastDecompressor = factory.fastDecompressor();
+    /** Sequence number of the next record data packet submitted to {@link #decodeGroup}. */
+    private long decodeSequence = 0;
+
+    /** Sequence number of the next decoded record data packet to be added to {@link #sink}. */
+    private long deliverSequence = 0;
+
+    /**
+     * Decoded record data packets waiting for the ones before them, indexed by the sequence number
+     * modulo its length.
+     */
+    private final DecodedRecordData[] reorderBuffer = new DecodedRecordData[MAX_DECODING_PACKETS];
+
+    /** The channel handler context. */
+    private ChannelHandlerContext ctx;
+
+    /** The time when the channel became active, in nanoseconds. */
+    private long activeNanos;
+
+    /** The tracker of the progress of the channel. */
+    private LivenessTracker liveness;
 
     ClientHandlerV01 clientHandlerV01;
 
@@ -134,22 +184,31 @@ public class ClientHandler extends ChannelInboundHandlerAdapter {
         if (msg instanceof ByteBuf) {
             dataNotEnough = false;
             ByteBuf data = (ByteBuf) msg;
+            liveness.progress(System.nanoTime());
             first = buffer == null;
             if (first) {
                 buffer = data;
             } else {
                 buffer = cumulator.cumulate(ctx.alloc(), buffer, data);
             }
-        } else if (msg instanceof IdleStateEvent) {
-            if (stream != null) {
-                stream.triggerReconnect();
-            }
-            return;
         } else {
             return;
         }
 
-        while (poolFlag && buffer.isReadable() && !dataNotEnough) {
+        decode();
+
+        if (buffer != null && ++numReads >= config.getNettyDiscardAfterReads()) {
+            numReads = 0;
+            discardSomeReadBytes();
+        }
+    }
+
+    /**
+     * Decode the packets in {@link #buffer} until the data is not enough or the {@link #sink} is
+     * paused, and release the buffer once it is fully read.
+     */
+    private void decode() throws Exception {
+        while (poolFlag && buffer.isReadable() && !dataNotEnough && canDecode()) {
             if (params.getProtocolVersion().code() < ProtocolVersion.V2.code()) {
                 dataNotEnough = clientHandlerV01.channelRead(poolFlag, buffer, dataNotEnough);
                 continue;
@@ -178,9 +237,63 @@ public class ClientHandler extends ChannelInboundHandlerAdapter {
             numReads = 0;
             buffer.release();
             buffer = null;
-        } else if (++numReads >= config.getNettyDiscardAfterReads()) {
-            numReads = 0;
-            discardSomeReadBytes();
+        }
+        // let the cumulator allocate the rest of a large packet body at once
+        cumulator.expect(
+                state != HandshakeState.PB_HEAD
+                                && params.getProtocolVersion().code() >= ProtocolVersion.V2.code()
+                        ? dataLength
+                        : 0);
+        if (decodeSequence - deliverSequence >= MAX_DECODING_PACKETS) {
+            ctx.channel().config().setAutoRead(false);
+        }
+    }
+
+    /**
+     * Check whether the handler can go on decoding packets.
+     *
+     * @return False if the {@link #sink} is paused or too many packets are being decoded.
+     */
+    private boolean canDecode() {
+        return !sink.isPaused() && decodeSequence - deliverSequence < MAX_DECODING_PACKETS;
+    }
+
+    /**
+     * Resume reading after the consumer drains the record queue. The records parked in {@link
+     * #sink} and the packets left in {@link #buffer} are handled before turning on auto read.
+     *
+     * @param ctx The channel handler context.
+     */
+    private void resume(ChannelHandlerContext ctx) {
+        if (!poolFlag || !sink.flush()) {
+            return;
+        }
+        // the time paused is not counted as idle
+        liveness.reset(System.nanoTime());
+        if (buffer != null) {
+            dataNotEnough = false;
+            try {
+                decode();
+            } catch (Exception e) {
+                handleException(e);
+                return;
+            }
+        }
+        if (canDecode()) {
+            ctx.channel().config().setAutoRead(true);
+        }
+    }
+
+    /**
+     * Handle an exception thrown outside of the channel pipeline callbacks.
+     *
+     * @param cause The exception.
+     */
+    private void handleException(Throwable cause) {
+        try {
+            exceptionCaught(ctx, cause);
+        } catch (Exception e) {
+            logger.error("Failed to handle exception", e);
         }
     }
 
@@ -287,82 +400,224 @@ public class ClientHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
-    /** Do parse record data from buffer. It will firstly decompress the raw data if necessary. */
+    /**
+     * Do parse record data from buffer. The packet is decoded in place if there is no {@link
+     * #decodeGroup}, otherwise a retained slice of it is submitted to the group with a sequence
+     * number, and the records are added to {@link #sink} in the event loop in the order of sequence
+     * numbers once they are decoded. In deferred mode the packet is copied and added to {@link
+     * #sink} as it is, and it is decoded by the consumer of the record queue.
+     */
     private void parseData() {
+        if (config.isDeferredDecode()) {
+            ByteBuf packet = decompressor.copy(buffer.readSlice(dataLength));
+            sink.add(new StreamContext.TransferPacket(new DeferredRecordData(packet, this)));
+            sink.flush();
+            return;
+        }
+        if (decodeGroup == null) {
+            decodeRecordData(buffer, dataLength, sink::add);
+            buffer.skipBytes(dataLength);
+            sink.flush();
+            return;
+        }
+        ByteBuf packet = buffer.readRetainedSlice(dataLength);
+        long sequence = decodeSequence++;
+        EventExecutor executor = config.isParallelDecode() ? decodeGroup.next() : decodeExecutor;
+        executor.execute(() -> decodeRecordDataAsync(packet, sequence));
+    }
+
+    /**
+     * Decode a record data packet in {@link #decodeGroup} and pass the result to the event loop.
+     *
+     * @param packet The packet, which is released after decoded.
+     * @param sequence The sequence number of the packet.
+     */
+    private void decodeRecordDataAsync(ByteBuf packet, long sequence) {
+        DecodedRecordData decoded = new DecodedRecordData();
         try {
-            byte[] buff = new byte[dataLength];
-            buffer.readBytes(buff, 0, dataLength);
-            LogProxyProto.RecordData recordData = LogProxyProto.RecordData.parseFrom(buff);
-            int compressType = recordData.getCompressType();
-            int compressedLen = recordData.getCompressedLen();
-            int rawLen = recordData.getRawLen();
-            byte[] rawData = recordData.getRecords().toByteArray();
-            if (compressType == CompressType.LZ4.code()) {
-                byte[] bytes = new byte[rawLen];
-                int decompress = fastDecompressor.decompress(rawData, 0, bytes, 0, rawLen);
-                if (decompress != compressedLen) {
-                    throw new LogProxyClientException(
-                            ErrorCode.E_LEN,
-                            "decompressed length ["
-                                    + decompress
-                                    + "] is not expected ["
-                                    + rawLen
-                                    + "]");
-                }
-                parseRecord(bytes);
-            } else {
-                parseRecord(rawData);
-            }
-        } catch (InvalidProtocolBufferException e) {
-            throw new LogProxyClientException(ErrorCode.E_PARSE, "Failed to read PB packet", e);
+            decodeRecordData(packet, packet.readableBytes(), decoded.packets::add);
+        } catch (Throwable t) {
+            decoded.cause = t;
+        } finally {
+            packet.release();
         }
+        ctx.executor().execute(() -> onRecordDataDecoded(sequence, decoded));
     }
 
     /**
-     * Do parse record data from an array of bytes to a {@link LogMessage} and add it into {@link
-     * #recordQueue}.
+     * Handle the result of {@link #decodeRecordDataAsync(ByteBuf, long)} in the event loop. The
+     * result is parked in {@link #reorderBuffer}, and the results in sequence are added to {@link
+     * #sink}.
      *
-     * @param bytes An array of bytes of record data.
-     * @throws LogProxyClientException If exception occurs.
+     * @param sequence The sequence number of the packet.
+     * @param decoded The decoded result.
      */
-    private void parseRecord(byte[] bytes) throws LogProxyClientException {
-        int offset = 0;
-        while (offset < bytes.length) {
-            int dataLength = Conversion.byteArrayToInt(bytes, offset + 4, 0, 0, 4);
-            /*
-             * We must copy a byte array and call parse after then,
-             * or got a !!!RIDICULOUS EXCEPTION!!!,
-             * if we wrap an unpooled buffer with offset and call setByteBuf just as same as `parse` function do.
-             */
-            LogMessage logMessage = new LogMessage(false);
-            byte[] data = new byte[dataLength + 8];
-            System.arraycopy(bytes, offset, data, 0, data.length);
-            try {
-                logMessage.parse(data);
-            } catch (Exception e) {
-                if (config.isIgnoreUnknownRecordType()) {
-                    // unsupported type, ignore
-                    logger.debug("Unsupported record type: {}", logMessage);
-                    offset += (8 + dataLength);
-                    continue;
+    private void onRecordDataDecoded(long sequence, DecodedRecordData decoded) {
+        reorderBuffer[(int) (sequence % MAX_DECODING_PACKETS)] = decoded;
+        while (true) {
+            int index = (int) (deliverSequence % MAX_DECODING_PACKETS);
+            DecodedRecordData next = reorderBuffer[index];
+            if (next == null) {
+                break;
+            }
+            reorderBuffer[index] = null;
+            deliverSequence++;
+            if (next.cause != null || !poolFlag) {
+                if (config.isPooledDecompressBuffer()) {
+                    next.packets.forEach(StreamContext.TransferPacket::release);
+                }
+                if (next.cause != null && poolFlag) {
+                    handleException(next.cause);
                 }
-                throw new LogProxyClientException(ErrorCode.E_PARSE, e);
+                continue;
             }
+            next.packets.forEach(sink::add);
+            liveness.progress(System.nanoTime());
+        }
+        resume(ctx);
+    }
 
-            if (logger.isTraceEnabled()) {
-                logger.trace("Log message: {}", logMessage);
-            }
+    /** The result of decoding a record data packet in {@link #decodeGroup}. */
+    private static class DecodedRecordData {
 
-            while (true) {
-                try {
-                    recordQueue.put(new StreamContext.TransferPacket(logMessage));
-                    break;
-                } catch (InterruptedException e) {
-                    // do nothing
-                }
+        /** The decoded packets. */
+        private final List<StreamContext.TransferPacket> packets = new ArrayList<>();
+
+        /** The exception occurred when decoding, or null if succeeded. */
+        private Throwable cause;
+    }
+
+    /**
+     * Decompress the raw data of a record data packet if necessary, and parse the records in it.
+     *
+     * <p>The {@link LogProxyProto.RecordData} is decoded directly from the buffer with an aliasing
+     * {@link CodedInputStream}, so the records payload is passed to the decompressor without being
+     * copied into an intermediate heap array.
+     *
+     * @param buf The buffer that holds the packet in its readable bytes.
+     * @param length The length of the packet.
+     * @param out The consumer of the parsed records.
+     */
+    void decodeRecordData(ByteBuf buf, int length, Consumer<StreamContext.TransferPacket> out) {
+        LogProxyProto.RecordData recordData = parseRecordData(buf, length);
+        decodeRecordData(recordData, recordData.getCompressType(), out);
+    }
+
+    /**
+     * Decompress the records of a {@link LogProxyProto.RecordData} if necessary, and parse them.
+     * The records may alias the memory of a packet buffer, they are always copied or decompressed
+     * into a new block before being parsed.
+     *
+     * @param recordData A {@link LogProxyProto.RecordData} instance.
+     * @param compressType The code of the compress type of the records.
+     * @param out The consumer of the parsed records.
+     */
+    void decodeRecordData(
+            LogProxyProto.RecordData recordData,
+            int compressType,
+            Consumer<StreamContext.TransferPacket> out) {
+        ByteBuf rawData = wrapRecords(recordData.getRecords());
+        ByteBuf block;
+        if (compressType != CompressType.NONE.code()) {
+            block =
+                    decompressor.decompress(
+                            compressType,
+                            rawData,
+                            recordData.getCompressedLen(),
+                            recordData.getRawLen());
+        } else {
+            // the raw data aliases the packet buffer, which will be reused after this packet
+            block = decompressor.copy(rawData);
+        }
+        try {
+            RecordBlockSplitter.V2.split(block, config, out);
+        } finally {
+            if (config.isPooledDecompressBuffer()) {
+                block.release();
             }
+        }
+    }
 
-            offset += (8 + dataLength);
+    /**
+     * Parse a {@link LogProxyProto.RecordData} from the readable bytes of a {@link ByteBuf} without
+     * moving its reader index. The returned message aliases the memory of the buffer, so it must
+     * not be used after the buffer is released or its read bytes are discarded.
+     *
+     * @param buf The buffer that contains the packet.
+     * @param length The length of the packet.
+     * @return A {@link LogProxyProto.RecordData} instance.
+     * @throws LogProxyClientException If the packet is malformed.
+     */
+    static LogProxyProto.RecordData parseRecordData(ByteBuf buf, int length)
+            throws LogProxyClientException {
+        try {
+            CodedInputStream input =
+                    UnsafeByteOperations.unsafeWrap(buf.nioBuffer(buf.readerIndex(), length))
+                            .newCodedInput();
+            input.enableAliasing(true);
+            return LogProxyProto.RecordData.parseFrom(input);
+        } catch (IOException e) {
+            throw new LogProxyClientException(ErrorCode.E_PARSE, "Failed to read PB packet", e);
+        }
+    }
+
+    /**
+     * Wrap the memory of a {@link ByteString} into a {@link ByteBuf} without copying it.
+     *
+     * @param bytes A {@link ByteString} instance.
+     * @return A {@link ByteBuf} that shares the memory of the {@link ByteString}.
+     */
+    static ByteBuf wrapRecords(ByteString bytes) {
+        ByteBufOutput output = new ByteBufOutput();
+        try {
+            UnsafeByteOperations.unsafeWriteTo(bytes, output);
+        } catch (IOException e) {
+            throw new LogProxyClientException(ErrorCode.E_INNER, "Failed to wrap records", e);
+        }
+        return output.buffer();
+    }
+
+    /** A {@link ByteOutput} that collects the written bytes as {@link ByteBuf} components. */
+    private static class ByteBufOutput extends ByteOutput {
+
+        /** The collected components. */
+        private final List<ByteBuf> components = new ArrayList<>(1);
+
+        @Override
+        public void write(byte value) {
+            components.add(Unpooled.wrappedBuffer(new byte[] {value}));
+        }
+
+        @Override
+        public void write(byte[] value, int offset, int length) {
+            components.add(Unpooled.copiedBuffer(value, offset, length));
+        }
+
+        @Override
+        public void writeLazy(byte[] value, int offset, int length) {
+            components.add(Unpooled.wrappedBuffer(value, offset, length));
+        }
+
+        @Override
+        public void write(ByteBuffer value) {
+            components.add(Unpooled.copiedBuffer(value));
+        }
+
+        @Override
+        public void writeLazy(ByteBuffer value) {
+            components.add(Unpooled.wrappedBuffer(value));
+        }
+
+        /**
+         * Get the collected bytes as a single {@link ByteBuf}.
+         *
+         * @return A {@link ByteBuf} instance.
+         */
+        ByteBuf buffer() {
+            if (components.size() == 1) {
+                return components.get(0);
+            }
+            return Unpooled.wrappedBuffer(components.toArray(new ByteBuf[0]));
         }
     }
 
@@ -383,13 +638,29 @@ public class ClientHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void channelActive(ChannelHandlerContext ctx) {
         poolFlag = true;
+        activeNanos = System.nanoTime();
 
+        this.ctx = ctx;
         StreamContext context = ctx.channel().attr(ConnectionFactory.CONTEXT_KEY).get();
         stream = context.stream();
         config = context.config();
         params = context.params();
         recordQueue = context.recordQueue();
-        clientHandlerV01 = new ClientHandlerV01(config, params, recordQueue, fastDecompressor);
+        decompressor =
+                new BlockDecompressor(
+                        config.getLz4Implementation() == Lz4Implementation.FASTEST
+                                ? null
+                                : Lz4Codec.of(config.getLz4Implementation()),
+                        ctx.alloc(),
+                        config.isPooledDecompressBuffer());
+        liveness =
+                new LivenessTracker(
+                        config.getIdleTimeoutS(), config.getMaxIdleTimeoutS(), activeNanos);
+        sink = new RecordSink(context, ctx.channel(), () -> resume(ctx));
+        context.recordSink(sink);
+        decodeGroup = ConnectionFactory.instance().decodeGroup(config);
+        decodeExecutor = decodeGroup == null ? null : decodeGroup.next();
+        clientHandlerV01 = new ClientHandlerV01(this, config, params, sink, decompressor);
 
         logger.info(
                 "ClientId: {} connecting LogProxy: {}",
@@ -416,7 +687,7 @@ public class ClientHandler extends ChannelInboundHandlerAdapter {
                         .setId(params.getClientId())
                         .setVersion(ClientUtil.getClientVersion())
                         .setEnableMonitor(params.isEnableMonitor())
-                        .setConfiguration(params.getConfigurationString())
+                        .setConfiguration(configurationString(params, config))
                         .build();
 
         byte[] packetBytes = handShake.toByteArray();
@@ -431,9 +702,86 @@ public class ClientHandler extends ChannelInboundHandlerAdapter {
         return byteBuf;
     }
 
+    /**
+     * Get the configuration string sent in the handshake, with the requested compress type appended
+     * if it is set in the client config and is not LZ4. LZ4 is the default of log proxy, so it is
+     * not sent and the handshake stays the same as that of the clients without the option.
+     *
+     * @param params Connection params.
+     * @param config Client config.
+     * @return The configuration string.
+     */
+    static String configurationString(ConnectionParams params, ClientConf config) {
+        CompressType compressType = config.getCompressType();
+        if (compressType == null || compressType == CompressType.LZ4) {
+            return params.getConfigurationString();
+        }
+        String codec =
+                compressType == CompressType.NONE
+                        ? "none"
+                        : CompressionCodecs.get(compressType.code()).name();
+        return params.getConfigurationString() + COMPRESS_TYPE_KEY + "=" + codec + " ";
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            checkLiveness(ctx);
+            return;
+        }
+        if (evt instanceof SslHandshakeCompletionEvent
+                && ((SslHandshakeCompletionEvent) evt).isSuccess()) {
+            long handshakeNanos = System.nanoTime() - activeNanos;
+            ctx.channel()
+                    .attr(ConnectionFactory.CONTEXT_KEY)
+                    .get()
+                    .sslHandshakeNanos(handshakeNanos);
+            SSLSession session = ctx.pipeline().get(SslHandler.class).engine().getSession();
+            logger.info(
+                    "SSL handshake with LogProxy: {} finished in {} ms, protocol: {}, cipher suite: {}",
+                    NetworkUtil.parseRemoteAddress(ctx.channel()),
+                    TimeUnit.NANOSECONDS.toMillis(handshakeNanos),
+                    session.getProtocol(),
+                    session.getCipherSuite());
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+
+    /**
+     * Check the liveness of the channel when there is no read within {@link
+     * ClientConf#getIdleTimeoutS()}, and reconnect only if the channel makes no progress within the
+     * timeout of {@link #liveness}. The channel is considered alive if it is paused because the
+     * record queue is full, or there are packets being decoded.
+     *
+     * @param ctx The channel handler context.
+     */
+    private void checkLiveness(ChannelHandlerContext ctx) {
+        long now = System.nanoTime();
+        if (sink.isPaused() || decodeSequence != deliverSequence) {
+            liveness.reset(now);
+            return;
+        }
+        if (!liveness.isDead(now)) {
+            logger.debug(
+                    "No data from LogProxy: {} in {} ms, timeout: {} ms",
+                    NetworkUtil.parseRemoteAddress(ctx.channel()),
+                    TimeUnit.NANOSECONDS.toMillis(liveness.idleNanos(now)),
+                    TimeUnit.NANOSECONDS.toMillis(liveness.timeoutNanos()));
+            return;
+        }
+        logger.warn(
+                "No progress from LogProxy: {} in {} ms, try to reconnect",
+                NetworkUtil.parseRemoteAddress(ctx.channel()),
+                TimeUnit.NANOSECONDS.toMillis(liveness.idleNanos(now)));
+        if (stream != null) {
+            stream.triggerReconnect();
+        }
+    }
+
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         poolFlag = false;
+        sink.discard();
 
         logger.info(
                 "Channel closed with ClientId: {}, LogProxy: {}",
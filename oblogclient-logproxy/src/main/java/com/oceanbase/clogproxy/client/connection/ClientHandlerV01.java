@@ -26,18 +26,17 @@ import com.oceanbase.clogproxy.common.packet.ProtocolVersion;
 import com.oceanbase.clogproxy.common.packet.protocol.LogProxyProto;
 import com.oceanbase.clogproxy.common.packet.protocol.V1Proto;
 import com.oceanbase.clogproxy.common.util.NetworkUtil;
-import com.oceanbase.oms.logmessage.LogMessage;
 
-import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.UnsafeByteOperations;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
-import io.netty.buffer.ByteBufUtil;
-import net.jpountz.lz4.LZ4FastDecompressor;
-import org.apache.commons.lang3.Conversion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.BlockingQueue;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /** Compatible for legacy V0 and V1 only, however you should not use */
 public class ClientHandlerV01 {
@@ -48,11 +47,12 @@ public class ClientHandlerV01 {
 
     private static final String CLIENT_IP = NetworkUtil.getLocalIp();
 
+    private final ClientHandler handler;
     private final ClientConf config;
     private ConnectionParams params;
-    private final BlockingQueue<StreamContext.TransferPacket> recordQueue;
+    private final RecordSink sink;
 
-    private final LZ4FastDecompressor fastDecompressor;
+    private final BlockDecompressor decompressor;
 
     enum HandshakeState {
         /** State of protocol version */
@@ -76,14 +76,16 @@ public class ClientHandlerV01 {
     private String logProxyIp;
 
     public ClientHandlerV01(
+            ClientHandler handler,
             ClientConf config,
             ConnectionParams params,
-            BlockingQueue<StreamContext.TransferPacket> recordQueue,
-            LZ4FastDecompressor fastDecompressor) {
+            RecordSink sink,
+            BlockDecompressor decompressor) {
+        this.handler = handler;
         this.config = config;
         this.params = params;
-        this.recordQueue = recordQueue;
-        this.fastDecompressor = fastDecompressor;
+        this.sink = sink;
+        this.decompressor = decompressor;
     }
 
     public void setParams(ConnectionParams params) {
@@ -221,7 +223,7 @@ public class ClientHandlerV01 {
 
     private void parseData(boolean poolflag, ByteBuf buffer) throws LogProxyClientException {
         // TODO... parse data exception handle
-        while (poolflag && buffer.readableBytes() >= 2) {
+        while (poolflag && !sink.isPaused() && buffer.readableBytes() >= 2) {
             buffer.markReaderIndex();
 
             int code = buffer.readShort();
@@ -245,6 +247,7 @@ public class ClientHandlerV01 {
             if (!go) {
                 break;
             }
+            sink.flush();
         }
     }
 
@@ -272,87 +275,38 @@ public class ClientHandlerV01 {
         }
 
         code = buffer.readByte();
-        if (CompressType.codeOf(code) == null) {
-            throw new LogProxyClientException(
-                    ErrorCode.E_COMPRESS_TYPE, "unexpected Compress Type: " + code);
-        }
 
         int totalLength = buffer.readInt();
         int rawDataLength = buffer.readInt();
-        byte[] rawData = new byte[rawDataLength];
-        buffer.readBytes(rawData);
-        if (code == CompressType.LZ4.code()) {
-            byte[] bytes = new byte[totalLength];
-            int decompress = fastDecompressor.decompress(rawData, 0, bytes, 0, totalLength);
-            if (decompress != rawDataLength) {
-                throw new LogProxyClientException(
-                        ErrorCode.E_LEN,
-                        "decompressed length ["
-                                + decompress
-                                + "] is not expected ["
-                                + rawDataLength
-                                + "]");
-            }
-            parseRecord(bytes);
+        ByteBuf rawData = buffer.readSlice(rawDataLength);
+        ByteBuf block;
+        if (code != CompressType.NONE.code()) {
+            block = decompressor.decompress(code, rawData, rawDataLength, totalLength);
         } else {
-            parseRecord(rawData);
+            // the raw data is a slice of the channel buffer, which will be reused after this frame
+            block = decompressor.copy(rawData);
+        }
+        try {
+            RecordBlockSplitter.V0.split(block, config, sink::add);
+        } finally {
+            if (config.isPooledDecompressBuffer()) {
+                block.release();
+            }
         }
         // complete
         return true;
     }
 
     /**
-     * Do parse record data from an array of bytes to a {@link LogMessage} and add it into {@link
-     * #recordQueue}.
+     * Parse a V1 packet, which is a {@link V1Proto.PbPacket} prefixed by its length, and dispatch
+     * it by the header type. The packet is decoded directly from the buffer, so the payload of
+     * record data is passed to the decompressor without being copied into a heap array.
      *
-     * @param bytes An array of bytes of record data.
-     * @throws LogProxyClientException If exception occurs.
+     * @param buffer The buffer that holds the packet after the protocol version.
+     * @return True if a packet is parsed, false if the data is not enough.
+     * @throws LogProxyClientException If the packet is malformed or not supported.
      */
-    private void parseRecord(byte[] bytes) throws LogProxyClientException {
-        int offset = 0;
-        while (offset < bytes.length) {
-            int dataLength = Conversion.byteArrayToInt(bytes, offset + 4, 0, 0, 4);
-            dataLength = ByteBufUtil.swapInt(dataLength);
-
-            /*
-             * We must copy a byte array and call parse after then,
-             * or got a !!!RIDICULOUS EXCEPTION!!!,
-             * if we wrap an unpooled buffer with offset and call setByteBuf just as same as `parse` function do.
-             */
-            LogMessage logMessage = new LogMessage(false);
-            byte[] data = new byte[dataLength];
-            System.arraycopy(bytes, offset + 8, data, 0, data.length);
-
-            try {
-                logMessage.parse(data);
-            } catch (Exception e) {
-                if (config.isIgnoreUnknownRecordType()) {
-                    // unsupported type, ignore
-                    logger.debug("Unsupported record type: {}", logMessage);
-                    offset += (8 + dataLength);
-                    continue;
-                }
-                throw new LogProxyClientException(ErrorCode.E_PARSE, e);
-            }
-
-            if (logger.isTraceEnabled()) {
-                logger.trace("Log message: {}", logMessage);
-            }
-
-            while (true) {
-                try {
-                    recordQueue.put(new StreamContext.TransferPacket(logMessage));
-                    break;
-                } catch (InterruptedException e) {
-                    // do nothing
-                }
-            }
-
-            offset += (8 + dataLength);
-        }
-    }
-
-    private boolean parseDataV1(ByteBuf buffer) {
+    private boolean parseDataV1(ByteBuf buffer) throws LogProxyClientException {
         if (buffer.readableBytes() < 4) {
             buffer.resetReaderIndex();
             return false;
@@ -362,44 +316,64 @@ public class ClientHandlerV01 {
             buffer.resetReaderIndex();
             return false;
         }
-        byte[] buff = new byte[length];
-        buffer.readBytes(buff, 0, length);
         try {
-            V1Proto.PbPacket packet = V1Proto.PbPacket.parseFrom(buff);
+            V1Proto.PbPacket packet = parse(buffer.nioBuffer(buffer.readerIndex(), length));
+            HeaderType type = HeaderType.codeOf(packet.getType());
+            if (type == HeaderType.DATA_CLIENT) {
+                LogProxyProto.RecordData recordData = parseRecordData(packet.getPayload());
+                // the compress type of packet applies if the record data doesn't declare one
+                int compressType =
+                        recordData.getCompressType() != CompressType.NONE.code()
+                                ? recordData.getCompressType()
+                                : packet.getCompressType();
+                handler.decodeRecordData(recordData, compressType, sink::add);
+                return true;
+            }
 
             if (packet.getCompressType() != CompressType.NONE.code()) {
-                // TODO..
                 throw new LogProxyClientException(
                         ErrorCode.E_COMPRESS_TYPE,
-                        "Unsupport Compress Type: " + packet.getCompressType());
+                        "Unsupport Compress Type: "
+                                + packet.getCompressType()
+                                + " of Header Type: "
+                                + packet.getType());
             }
-            if (packet.getType() != HeaderType.STATUS.code()) {
-                // TODO.. header type dispatcher
+            if (type == HeaderType.STATUS) {
+                LogProxyProto.RuntimeStatus status =
+                        LogProxyProto.RuntimeStatus.parseFrom(packet.getPayload());
+                sink.add(new StreamContext.TransferPacket(status));
+            } else if (type == HeaderType.ERROR_RESPONSE) {
+                LogProxyProto.ErrorResponse response =
+                        LogProxyProto.ErrorResponse.parseFrom(packet.getPayload());
+                logger.error("LogProxy refused handshake request: {}", response.toString());
                 throw new LogProxyClientException(
-                        ErrorCode.E_HEADER_TYPE, "Unsupport Header Type: " + packet.getType());
-            }
-            LogProxyProto.RuntimeStatus status =
-                    LogProxyProto.RuntimeStatus.parseFrom(packet.getPayload());
-            if (status == null) {
+                        ErrorCode.NO_AUTH,
+                        "LogProxy refused handshake request: " + response.toString(),
+                        true);
+            } else {
                 throw new LogProxyClientException(
-                        ErrorCode.E_PARSE, "Failed to read PB packet, empty Runtime Status");
-            }
-
-            while (true) {
-                try {
-                    recordQueue.put(new StreamContext.TransferPacket(status));
-                    break;
-                } catch (InterruptedException e) {
-                    // do nothing
-                }
+                        ErrorCode.E_HEADER_TYPE, "Unsupport Header Type: " + packet.getType());
             }
-
-        } catch (InvalidProtocolBufferException e) {
+        } catch (IOException e) {
             throw new LogProxyClientException(ErrorCode.E_PARSE, "Failed to read PB packet", e);
+        } finally {
+            buffer.skipBytes(length);
         }
         return true;
     }
 
+    private static V1Proto.PbPacket parse(ByteBuffer bytes) throws IOException {
+        CodedInputStream input = UnsafeByteOperations.unsafeWrap(bytes).newCodedInput();
+        input.enableAliasing(true);
+        return V1Proto.PbPacket.parseFrom(input);
+    }
+
+    private static LogProxyProto.RecordData parseRecordData(ByteString bytes) throws IOException {
+        CodedInputStream input = bytes.newCodedInput();
+        input.enableAliasing(true);
+        return LogProxyProto.RecordData.parseFrom(input);
+    }
+
     public void resetState() {
         state = HandshakeState.PROTOCOL_VERSION;
     }
@@ -431,10 +405,11 @@ public class ClientHandlerV01 {
         byteBuf.writeInt(length);
         byteBuf.writeBytes(version.getBytes());
 
-        length = params.getConfigurationString().length();
+        String configuration = ClientHandler.configurationString(params, config);
+        length = configuration.length();
         byteBuf.capacity(byteBuf.capacity() + length + 4);
         byteBuf.writeInt(length);
-        byteBuf.writeBytes(params.getConfigurationString().getBytes());
+        byteBuf.writeBytes(configuration.getBytes());
 
         return byteBuf;
     }
@@ -16,11 +16,18 @@
 
 package com.oceanbase.clogproxy.client.connection;
 
+import com.oceanbase.clogproxy.client.codec.Lz4Codec;
 import com.oceanbase.clogproxy.client.config.ClientConf;
 import com.oceanbase.clogproxy.client.enums.ErrorCode;
+import com.oceanbase.clogproxy.client.enums.Lz4Implementation;
 import com.oceanbase.clogproxy.client.exception.LogProxyClientException;
 import com.oceanbase.clogproxy.client.listener.RecordListener;
 import com.oceanbase.clogproxy.client.listener.StatusListener;
+import com.oceanbase.clogproxy.client.listener.Transaction;
+import com.oceanbase.clogproxy.client.listener.TransactionListener;
+import com.oceanbase.clogproxy.client.util.NamedThreadFactory;
+import com.oceanbase.clogproxy.client.util.VirtualThreads;
+import com.oceanbase.oms.logmessage.LogMessage;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -28,6 +35,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -67,6 +75,27 @@ public class ClientStream {
     /** The list of {@link StatusListener} */
     private final List<StatusListener> statusListeners = new ArrayList<>();
 
+    /** The list of {@link TransactionListener}. */
+    private final List<TransactionListener> transactionListeners = new ArrayList<>();
+
+    /** Assembler of the transactions delivered to {@link #transactionListeners}. */
+    private final TransactionAssembler transactionAssembler;
+
+    /** Dispatcher of the records to lanes, or null if the listeners run in the process thread. */
+    private LaneDispatcher dispatcher;
+
+    /** Records of the batch being processed, only used by the process thread. */
+    private final List<LogMessage> batch = new ArrayList<>();
+
+    /** Packets of the batch being processed, they are released after the batch is delivered. */
+    private final List<StreamContext.TransferPacket> batchPackets = new ArrayList<>();
+
+    /** Packets drained from the record queue at a time. */
+    private final List<StreamContext.TransferPacket> drained = new ArrayList<>();
+
+    /** Total bytes of the records in the batch being processed. */
+    private long batchBytes = 0;
+
     /** Reconnect state type enumeration. */
     private enum ReconnectState {
         /** success */
@@ -85,6 +114,7 @@ public class ClientStream {
      */
     public ClientStream(ClientConf clientConf, ConnectionParams connectionParams) {
         this.context = new StreamContext(this, clientConf, connectionParams);
+        this.transactionAssembler = new TransactionAssembler(clientConf.isPooledDecompressBuffer());
     }
 
     /** Close the connection and wait the process thread. */
@@ -98,7 +128,14 @@ public class ClientStream {
             }
 
             join();
+            if (thread == null || !thread.isAlive()) {
+                // the packets offered by the closing connection after the process thread exits
+                discardQueuedPackets();
+            }
             thread = null;
+            ConnectionFactory.instance()
+                    .releaseWorkerGroup(context.config(), context.workerGroup());
+            context.workerGroup(null);
             logger.info("Client stopped successfully");
         }
     }
@@ -136,6 +173,13 @@ public class ClientStream {
                 logger.error("Failed to notify listener on exception: {}, cause: {}", e, throwable);
             }
         }
+        for (TransactionListener listener : transactionListeners) {
+            try {
+                listener.onException(e);
+            } catch (Throwable throwable) {
+                logger.error("Failed to notify listener on exception: {}, cause: {}", e, throwable);
+            }
+        }
     }
 
     /** Start the process thread. */
@@ -144,9 +188,28 @@ public class ClientStream {
         context.params().setEnableMonitor(!statusListeners.isEmpty());
         retryTimes = 0;
 
+        Lz4Codec lz4Codec = Lz4Codec.of(context.config().getLz4Implementation());
+        // the pure Java implementation is not worth measuring, as it is only a fallback
+        if (context.config().isLz4SelfCheck()
+                && lz4Codec.implementation() != Lz4Implementation.JAVA_SAFE) {
+            lz4Codec.selfCheck();
+        }
+
         if (started.compareAndSet(false, true)) {
+            context.workerGroup(
+                    ConnectionFactory.instance()
+                            .acquireWorkerGroup(context.config(), context.params()));
+            dispatcher =
+                    context.config().getDispatchLanes() > 0
+                            ? new LaneDispatcher(
+                                    context.config().getDispatchLanes(),
+                                    listeners,
+                                    context.config().isPooledDecompressBuffer(),
+                                    newThreadFactory("log-proxy-client-lane", true))
+                            : null;
+            ThreadFactory threadFactory = newThreadFactory("log-proxy-client-stream", false);
             thread =
-                    new Thread(
+                    threadFactory.newThread(
                             () -> {
                                 while (isRunning()) {
                                     ReconnectState state = reconnect();
@@ -186,37 +249,7 @@ public class ClientStream {
                                         continue;
                                     }
                                     try {
-                                        switch (packet.getType()) {
-                                            case DATA_CLIENT:
-                                                for (RecordListener listener : listeners) {
-                                                    listener.notify(packet.getRecord());
-                                                }
-                                                break;
-                                            case STATUS:
-                                                for (StatusListener listener : statusListeners) {
-                                                    listener.notify(packet.getStatus());
-                                                }
-                                                break;
-                                            default:
-                                                throw new LogProxyClientException(
-                                                        ErrorCode.E_PROTOCOL,
-                                                        "Unsupported Packet Type: "
-                                                                + packet.getType());
-                                        }
-
-                                        try {
-                                            setCheckpointString(
-                                                    packet.getRecord().getSafeTimestamp());
-                                        } catch (IllegalArgumentException e) {
-                                            logger.error(
-                                                    "Failed to update checkpoint for log message: "
-                                                            + packet.getRecord(),
-                                                    e);
-                                            throw new LogProxyClientException(
-                                                    ErrorCode.E_INNER,
-                                                    "Failed to update checkpoint");
-                                        }
-
+                                        process(packet);
                                     } catch (LogProxyClientException e) {
                                         triggerException(e);
                                         break;
@@ -227,17 +260,267 @@ public class ClientStream {
                                     }
                                 }
 
+                                if (dispatcher != null) {
+                                    dispatcher.close();
+                                }
+                                discardQueuedPackets();
+                                transactionAssembler.reset();
                                 triggerStop();
                                 logger.info("Client process thread exit");
                             });
-
-            thread.setDaemon(false);
             thread.start();
         }
         // add a shutdown hook to trigger the stop the process
         Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
     }
 
+    /**
+     * Process the packets in a batch starting from the given one. More packets are drained from the
+     * record queue until the batch reaches {@link ClientConf#getBatchMaxRecords()} or {@link
+     * ClientConf#getBatchMaxBytes()}, or no packet arrives within {@link
+     * ClientConf#getBatchLingerMs()}. Then the records are delivered to the listeners and the
+     * checkpoint is updated once with the last record.
+     *
+     * @param first The first packet of the batch.
+     * @throws Exception If the packets can't be processed or the listeners fail.
+     */
+    private void process(StreamContext.TransferPacket first) throws Exception {
+        ClientConf config = context.config();
+        int maxRecords = Math.max(1, config.getBatchMaxRecords());
+        long deadline =
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getBatchLingerMs());
+        try {
+            batchPackets.add(first);
+            signalSink(batchPackets);
+            accept(first);
+            while (batch.size() < maxRecords
+                    && (config.getBatchMaxBytes() <= 0 || batchBytes < config.getBatchMaxBytes())) {
+                drained.clear();
+                if (context.recordQueue().drainTo(drained, maxRecords - batch.size()) == 0) {
+                    long remaining = deadline - System.nanoTime();
+                    StreamContext.TransferPacket packet;
+                    try {
+                        packet =
+                                remaining > 0
+                                        ? context.recordQueue()
+                                                .poll(remaining, TimeUnit.NANOSECONDS)
+                                        : null;
+                    } catch (InterruptedException e) {
+                        packet = null;
+                    }
+                    if (packet == null) {
+                        break;
+                    }
+                    drained.add(packet);
+                }
+                signalSink(drained);
+                batchPackets.addAll(drained);
+                for (StreamContext.TransferPacket packet : drained) {
+                    accept(packet);
+                }
+            }
+            deliver();
+        } finally {
+            // records of pooled blocks are only valid during notify
+            if (config.isPooledDecompressBuffer()) {
+                for (StreamContext.TransferPacket packet : batchPackets) {
+                    packet.release();
+                }
+            }
+            drained.clear();
+            batchPackets.clear();
+            batch.clear();
+            batchBytes = 0;
+        }
+    }
+
+    /**
+     * Drop the packets left in the record queue and release their buffers if they are pooled. It
+     * must not be called while the process thread is polling the queue.
+     */
+    private void discardQueuedPackets() {
+        List<StreamContext.TransferPacket> packets = new ArrayList<>();
+        context.recordQueue().drainTo(packets);
+        context.addQueuedBytes(-queuedBytes(packets));
+        if (context.config().isPooledDecompressBuffer()) {
+            packets.forEach(StreamContext.TransferPacket::release);
+        }
+        if (!packets.isEmpty()) {
+            logger.info("Discard {} packets in the record queue", packets.size());
+        }
+    }
+
+    /**
+     * Get the bytes of the record data packets counted by {@link StreamContext#queuedBytes()}.
+     *
+     * @param packets Packets taken from the record queue.
+     * @return Bytes of the record data packets.
+     */
+    private static long queuedBytes(List<StreamContext.TransferPacket> packets) {
+        long bytes = 0;
+        for (StreamContext.TransferPacket packet : packets) {
+            bytes += packet.queuedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Notify the record sink that some packets are taken from the record queue.
+     *
+     * @param packets Packets taken from the record queue.
+     */
+    private void signalSink(List<StreamContext.TransferPacket> packets) {
+        context.addQueuedBytes(-queuedBytes(packets));
+        RecordSink sink = context.recordSink();
+        if (sink != null) {
+            sink.signal();
+        }
+    }
+
+    /**
+     * Add the records of a packet to the batch. Status packets are delivered to the status
+     * listeners at once.
+     *
+     * @param packet A {@link StreamContext.TransferPacket}.
+     * @throws Exception If the packet can't be decoded or the status listeners fail.
+     */
+    private void accept(StreamContext.TransferPacket packet) throws Exception {
+        switch (packet.getType()) {
+            case DATA_CLIENT:
+                if (packet.getRecordData() != null) {
+                    packet.getRecordData()
+                            .decode(
+                                    decoded -> {
+                                        batchPackets.add(decoded);
+                                        addRecord(decoded.getRecord());
+                                    });
+                } else {
+                    addRecord(packet.getRecord());
+                }
+                break;
+            case STATUS:
+                for (StatusListener listener : statusListeners) {
+                    listener.notify(packet.getStatus());
+                }
+                break;
+            default:
+                throw new LogProxyClientException(
+                        ErrorCode.E_PROTOCOL, "Unsupported Packet Type: " + packet.getType());
+        }
+    }
+
+    /**
+     * Add a record to the batch.
+     *
+     * @param record A {@link LogMessage}.
+     */
+    private void addRecord(LogMessage record) {
+        batch.add(record);
+        if (record.getByteBuff() != null) {
+            batchBytes += record.getByteBuff().capacity();
+        }
+    }
+
+    /**
+     * Create the factory of client threads, which creates virtual threads if {@link
+     * ClientConf#isVirtualThreads()} is set and the JVM supports it. Note that virtual threads are
+     * always daemon threads.
+     *
+     * @param prefix Name prefix of the threads.
+     * @param daemon Flag of whether the platform threads are daemon.
+     * @return A {@link ThreadFactory} instance.
+     */
+    private ThreadFactory newThreadFactory(String prefix, boolean daemon) {
+        ThreadFactory platform = new NamedThreadFactory(prefix, daemon);
+        return context.config().isVirtualThreads()
+                ? VirtualThreads.threadFactory(prefix, platform)
+                : platform;
+    }
+
+    /**
+     * Deliver the batch to the listeners directly or through the lanes of {@link #dispatcher}, and
+     * to the transaction assembler, then update the checkpoint with the last completed record. If
+     * there are transaction listeners, the checkpoint only moves to the records outside any
+     * transaction, so the open transaction is received again from its BEGIN on reconnection.
+     *
+     * @throws LogProxyClientException If the checkpoint can't be updated.
+     */
+    private void deliver() throws LogProxyClientException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (dispatcher == null) {
+            LaneDispatcher.notify(listeners, batch);
+        } else {
+            dispatcher.dispatch(batch);
+        }
+        LogMessage last = batch.get(batch.size() - 1);
+        if (!transactionListeners.isEmpty()) {
+            last = null;
+            for (LogMessage record : batch) {
+                transactionAssembler.add(record, this::notifyTransaction);
+                if (!transactionAssembler.isOpen()) {
+                    last = record;
+                }
+            }
+        }
+        if (dispatcher == null) {
+            if (last != null) {
+                updateCheckpoint(last);
+            }
+        } else {
+            if (last != null) {
+                dispatcher.markCheckpoint(last.getSafeTimestamp());
+            }
+            // only the rows completed by all lanes are checkpointed
+            String safeTimestamp = dispatcher.completedCheckpoint();
+            if (safeTimestamp != null) {
+                updateCheckpoint(safeTimestamp);
+            }
+        }
+    }
+
+    /**
+     * Deliver a transaction to the transaction listeners.
+     *
+     * @param transaction A {@link Transaction}.
+     */
+    private void notifyTransaction(Transaction transaction) {
+        for (TransactionListener listener : transactionListeners) {
+            listener.notify(transaction);
+        }
+    }
+
+    /**
+     * Update the checkpoint with the safe timestamp of a record.
+     *
+     * @param record A {@link LogMessage}.
+     * @throws LogProxyClientException If the safe timestamp is invalid.
+     */
+    private void updateCheckpoint(LogMessage record) throws LogProxyClientException {
+        try {
+            setCheckpointString(record.getSafeTimestamp());
+        } catch (IllegalArgumentException e) {
+            logger.error("Failed to update checkpoint for log message: " + record, e);
+            throw new LogProxyClientException(ErrorCode.E_INNER, "Failed to update checkpoint");
+        }
+    }
+
+    /**
+     * Update the checkpoint with a safe timestamp.
+     *
+     * @param safeTimestamp The safe timestamp of a record.
+     * @throws LogProxyClientException If the safe timestamp is invalid.
+     */
+    private void updateCheckpoint(String safeTimestamp) throws LogProxyClientException {
+        try {
+            setCheckpointString(safeTimestamp);
+        } catch (IllegalArgumentException e) {
+            logger.error("Failed to update checkpoint with safe timestamp: " + safeTimestamp, e);
+            throw new LogProxyClientException(ErrorCode.E_INNER, "Failed to update checkpoint");
+        }
+    }
+
     /**
      * Get the flag of whether the stream is started.
      *
@@ -270,8 +553,11 @@ public class ClientStream {
                     connection.close();
                     connection = null;
                 }
-                // when stopped, context.recordQueue may not empty, just use checkpointString to do
-                // reconnection.
+                // the open transaction and the queued packets will be received again from the
+                // checkpoint, they are dropped only after the old channel is closed, as the
+                // channel puts no more records into the queue since then, see RecordSink
+                transactionAssembler.reset();
+                discardQueuedPackets();
                 if (StringUtils.isNotEmpty(checkpointString)) {
                     logger.warn("update checkpoint: {}", checkpointString);
                     context.params().updateCheckpoint(checkpointString);
@@ -348,4 +634,13 @@ public class ClientStream {
     public synchronized void addStatusListener(StatusListener statusListener) {
         statusListeners.add(statusListener);
     }
+
+    /**
+     * Add a {@link TransactionListener} to {@link #transactionListeners}.
+     *
+     * @param transactionListener A {@link TransactionListener}.
+     */
+    public synchronized void addTransactionListener(TransactionListener transactionListener) {
+        transactionListeners.add(transactionListener);
+    }
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * This class races the connections to several endpoints of log proxy in the way of Happy Eyeballs
+ * (RFC 8305). The attempts are started one by one with a fixed delay, the next attempt is started
+ * at once when an attempt fails, and the first established channel wins while the others are
+ * closed. The winner is decided by the TCP connection, so an endpoint which accepts connections but
+ * fails later is left to the reconnection of the stream.
+ */
+class ConnectRace {
+
+    /** The count of endpoints. */
+    private final int count;
+
+    /** The function which starts the connection attempt to the endpoint at a given index. */
+    private final IntFunction<ChannelFuture> connector;
+
+    /** The delay in milliseconds before starting the next attempt. */
+    private final long attemptDelayMs;
+
+    /** The executor used to schedule the next attempt. */
+    private final EventExecutor executor;
+
+    /** The futures of the started attempts. */
+    private final ChannelFuture[] attempts;
+
+    /** The promise of the winner channel. */
+    private final Promise<Channel> result;
+
+    /** The count of started attempts. */
+    private int started = 0;
+
+    /** The count of failed attempts. */
+    private int failed = 0;
+
+    /** The index of the winner endpoint, -1 before any attempt succeeds. */
+    private int winnerIndex = -1;
+
+    /** The scheduled task to start the next attempt. */
+    private ScheduledFuture<?> nextAttempt;
+
+    /**
+     * Constructor.
+     *
+     * @param count The count of endpoints.
+     * @param connector The function which starts the connection attempt to an endpoint.
+     * @param attemptDelayMs The delay in milliseconds before starting the next attempt.
+     * @param executor The executor used to schedule the next attempt.
+     */
+    ConnectRace(
+            int count,
+            IntFunction<ChannelFuture> connector,
+            long attemptDelayMs,
+            EventExecutor executor) {
+        this.count = count;
+        this.connector = connector;
+        this.attemptDelayMs = attemptDelayMs;
+        this.executor = executor;
+        this.attempts = new ChannelFuture[count];
+        this.result = executor.newPromise();
+    }
+
+    /**
+     * Start the race.
+     *
+     * @return The future of the winner channel, or the cause of the last failed attempt.
+     */
+    Future<Channel> start() {
+        startNext();
+        return result;
+    }
+
+    /**
+     * Get the index of the winner endpoint.
+     *
+     * @return The index of the winner endpoint, -1 before any attempt succeeds.
+     */
+    synchronized int winnerIndex() {
+        return winnerIndex;
+    }
+
+    /** Start the attempt to the next endpoint, and schedule the one after it. */
+    private synchronized void startNext() {
+        if (nextAttempt != null) {
+            nextAttempt.cancel(false);
+            nextAttempt = null;
+        }
+        if (winnerIndex >= 0 || started == count || result.isDone()) {
+            return;
+        }
+        int index = started++;
+        if (started < count) {
+            nextAttempt = executor.schedule(this::startNext, attemptDelayMs, TimeUnit.MILLISECONDS);
+        }
+        ChannelFuture attempt;
+        try {
+            attempt = connector.apply(index);
+        } catch (Throwable t) {
+            // the executor swallows the exception of a scheduled attempt, so count it as failed
+            onFailure(t);
+            return;
+        }
+        attempts[index] = attempt;
+        attempt.addListener(future -> onComplete(index, (ChannelFuture) future));
+    }
+
+    /**
+     * Cancel the race if it's not completed, the started attempts are closed.
+     *
+     * @return True if the race is cancelled, false if it has completed.
+     */
+    synchronized boolean cancel() {
+        if (!result.cancel(false)) {
+            return false;
+        }
+        if (nextAttempt != null) {
+            nextAttempt.cancel(false);
+            nextAttempt = null;
+        }
+        for (int i = 0; i < started; i++) {
+            if (attempts[i] != null) {
+                attempts[i].channel().close();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Handle the completion of an attempt.
+     *
+     * @param index The index of the endpoint.
+     * @param future The future of the attempt.
+     */
+    private synchronized void onComplete(int index, ChannelFuture future) {
+        if (future.isSuccess()) {
+            if (winnerIndex >= 0 || result.isDone()) {
+                future.channel().close();
+                return;
+            }
+            winnerIndex = index;
+            if (nextAttempt != null) {
+                nextAttempt.cancel(false);
+                nextAttempt = null;
+            }
+            for (int i = 0; i < started; i++) {
+                if (i != index && attempts[i] != null) {
+                    attempts[i].channel().close();
+                }
+            }
+            result.trySuccess(future.channel());
+            return;
+        }
+        onFailure(future.cause());
+    }
+
+    /**
+     * Handle a failed attempt.
+     *
+     * @param cause The cause of the failure.
+     */
+    private synchronized void onFailure(Throwable cause) {
+        failed++;
+        if (winnerIndex >= 0 || result.isDone()) {
+            return;
+        }
+        if (failed == count) {
+            result.tryFailure(cause);
+        } else {
+            // fail fast to the next endpoint instead of waiting for the delay
+            startNext();
+        }
+    }
+}
@@ -51,7 +51,9 @@ public class Connection {
             logger.warn("Connection already closed");
         }
         if (channel != null) {
-            if (channel.isActive()) {
+            // wait for the close in the event loop even if the channel is inactive, so the tasks of
+            // the channel can't put records into the queue after this method returns
+            if (channel.isOpen()) {
                 try {
                     channel.close().addListener(this::logCloseResult).syncUninterruptibly();
                 } catch (Exception e) {
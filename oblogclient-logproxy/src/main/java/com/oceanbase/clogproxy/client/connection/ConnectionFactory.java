@@ -16,22 +16,42 @@
 
 package com.oceanbase.clogproxy.client.connection;
 
+import com.oceanbase.clogproxy.client.config.ClientConf;
+import com.oceanbase.clogproxy.client.connection.ConnectionParams.Endpoint;
+import com.oceanbase.clogproxy.client.enums.ByteBufAllocatorType;
 import com.oceanbase.clogproxy.client.enums.ErrorCode;
+import com.oceanbase.clogproxy.client.enums.TransportType;
 import com.oceanbase.clogproxy.client.exception.LogProxyClientException;
 import com.oceanbase.clogproxy.client.util.NamedThreadFactory;
 import com.oceanbase.clogproxy.client.util.NettyEventLoopUtil;
 
 import io.netty.bootstrap.Bootstrap;
-import io.netty.channel.ChannelFuture;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.AdaptiveRecvByteBufAllocator;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.handler.ssl.OpenSslSessionContext;
 import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.Future;
 
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /** This is a factory class of {@link Connection}. */
 public class ConnectionFactory {
@@ -58,72 +78,330 @@ public class ConnectionFactory {
     /** Context key. */
     public static final AttributeKey<StreamContext> CONTEXT_KEY = AttributeKey.valueOf("context");
 
-    /** Worker group in type of {@link EventLoopGroup}. */
-    private static final EventLoopGroup WORKER_GROUP =
-            NettyEventLoopUtil.newEventLoopGroup(
-                    1, new NamedThreadFactory("log-proxy-client-worker", true));
+    /** Shared worker groups keyed by the resolved transport type and the number of threads. */
+    private static final ConcurrentMap<String, EventLoopGroup> SHARED_WORKER_GROUPS =
+            new ConcurrentHashMap<>();
 
     /**
-     * Create a {@link Bootstrap} instance.
+     * Get the worker group for a client stream. A group supplied by {@link
+     * ClientConf#getWorkerGroup()} is returned as is, a new group is created if {@link
+     * ClientConf#isDedicatedWorkerGroup()} is set, otherwise the shared group with {@link
+     * ClientConf#getWorkerThreads()} threads of {@link ClientConf#getTransportType()} is returned.
+     * The transport type is always epoll if log proxy is connected by a unix domain socket.
+     *
+     * @param config Client config.
+     * @param params Connection params.
+     * @return An {@link EventLoopGroup} instance.
+     */
+    EventLoopGroup acquireWorkerGroup(ClientConf config, ConnectionParams params) {
+        if (config.getWorkerGroup() != null) {
+            return config.getWorkerGroup();
+        }
+        if (config.isDedicatedWorkerGroup()) {
+            return NettyEventLoopUtil.newEventLoopGroup(
+                    transportType(config, params),
+                    config.getWorkerThreads(),
+                    new NamedThreadFactory("log-proxy-client-dedicated-worker", true));
+        }
+        return sharedWorkerGroup(transportType(config, params), config.getWorkerThreads());
+    }
+
+    /**
+     * Get the transport type of the worker group.
+     *
+     * @param config Client config.
+     * @param params Connection params.
+     * @return Epoll if any endpoint of log proxy is a unix domain socket, otherwise {@link
+     *     ClientConf#getTransportType()}.
+     */
+    private static TransportType transportType(ClientConf config, ConnectionParams params) {
+        return params.hasDomainSocket() ? TransportType.EPOLL : config.getTransportType();
+    }
+
+    /**
+     * Release the worker group returned by {@link #acquireWorkerGroup(ClientConf,
+     * ConnectionParams)}. Only the dedicated group is shut down here.
+     *
+     * @param config Client config.
+     * @param workerGroup The worker group.
+     */
+    void releaseWorkerGroup(ClientConf config, EventLoopGroup workerGroup) {
+        if (workerGroup != null
+                && config.getWorkerGroup() == null
+                && config.isDedicatedWorkerGroup()) {
+            workerGroup.shutdownGracefully();
+        }
+    }
+
+    /**
+     * Get the shared worker group with specific transport type and number of threads, and create it
+     * if absent.
+     *
+     * @param type Transport type.
+     * @param nThreads Number of threads.
+     * @return An {@link EventLoopGroup} instance.
+     */
+    private EventLoopGroup sharedWorkerGroup(TransportType type, int nThreads) {
+        TransportType transportType = NettyEventLoopUtil.resolve(type);
+        return SHARED_WORKER_GROUPS.computeIfAbsent(
+                transportType + "-" + nThreads,
+                key ->
+                        NettyEventLoopUtil.newEventLoopGroup(
+                                transportType,
+                                nThreads,
+                                new NamedThreadFactory("log-proxy-client-worker", true)));
+    }
+
+    /** Shared executor groups for record decoding keyed by the number of threads. */
+    private static final ConcurrentMap<Integer, EventExecutorGroup> SHARED_DECODE_GROUPS =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Get the executor group used to decode record data. A group supplied by {@link
+     * ClientConf#getDecodeExecutor()} is returned as is, otherwise the shared group with {@link
+     * ClientConf#getDecodeThreads()} threads is returned.
+     *
+     * @param config Client config.
+     * @return An {@link EventExecutorGroup} instance, or null if records should be decoded on the
+     *     worker thread.
+     */
+    EventExecutorGroup decodeGroup(ClientConf config) {
+        if (config.getDecodeExecutor() != null) {
+            return config.getDecodeExecutor();
+        }
+        if (config.getDecodeThreads() <= 0) {
+            return null;
+        }
+        return SHARED_DECODE_GROUPS.computeIfAbsent(
+                config.getDecodeThreads(),
+                n ->
+                        new DefaultEventExecutorGroup(
+                                n, new NamedThreadFactory("log-proxy-client-decoder", true)));
+    }
+
+    /**
+     * Create a {@link Bootstrap} instance connecting to an endpoint. The pipeline of the channel is
+     * left empty until the channel wins the race, see {@link #initPipeline(StreamContext, Endpoint,
+     * Channel)}.
      *
      * @param context The {@link StreamContext} used in channels.
+     * @param endpoint The endpoint of log proxy.
+     * @param workerGroup The worker group of the channel.
      * @return A {@link Bootstrap} instance.
      */
-    private Bootstrap initBootstrap(StreamContext context) {
+    Bootstrap initBootstrap(StreamContext context, Endpoint endpoint, EventLoopGroup workerGroup) {
+        Class<? extends Channel> channelClass;
         Bootstrap bootstrap = new Bootstrap();
-        bootstrap
-                .attr(CONTEXT_KEY, context)
-                .group(WORKER_GROUP)
-                .channel(NettyEventLoopUtil.getClientSocketChannelClass())
-                .option(ChannelOption.TCP_NODELAY, true)
-                .option(ChannelOption.SO_KEEPALIVE, true);
-
-        SslContext sslContext = context.config().getSslContext();
+        if (endpoint.isDomainSocket()) {
+            channelClass = NettyEventLoopUtil.getClientDomainSocketChannelClass(workerGroup);
+            bootstrap.group(workerGroup).channel(channelClass);
+        } else {
+            channelClass = NettyEventLoopUtil.getClientSocketChannelClass(workerGroup);
+            bootstrap
+                    .group(workerGroup)
+                    .channel(channelClass)
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .option(ChannelOption.SO_KEEPALIVE, true);
+        }
+        bootstrap.attr(CONTEXT_KEY, context);
+        applyOptions(bootstrap, channelClass, context.config());
+        bootstrap.option(
+                ChannelOption.CONNECT_TIMEOUT_MILLIS, context.config().getConnectTimeoutMs());
+        // nothing should be read before the channel wins the race
+        bootstrap.option(ChannelOption.AUTO_READ, false);
         bootstrap.handler(
-                new ChannelInitializer<SocketChannel>() {
+                new ChannelInitializer<Channel>() {
 
                     @Override
-                    protected void initChannel(SocketChannel ch) {
-                        if (sslContext != null) {
-                            ch.pipeline().addFirst(sslContext.newHandler(ch.alloc()));
-                        }
-                        ch.pipeline()
-                                .addLast(
-                                        new IdleStateHandler(
-                                                context.config().getIdleTimeoutS(), 0, 0));
-                        ch.pipeline().addLast(new ClientHandler());
-                    }
+                    protected void initChannel(Channel ch) {}
                 });
         return bootstrap;
     }
 
     /**
-     * Create a {@link Connection} with specific {@link StreamContext}.
+     * Initialize the pipeline of the channel which wins the race, and start reading from it.
+     *
+     * @param context The {@link StreamContext} used in channels.
+     * @param endpoint The endpoint of log proxy.
+     * @param channel The channel connected to the endpoint.
+     */
+    private void initPipeline(StreamContext context, Endpoint endpoint, Channel channel) {
+        if (context.config().getSslContext() != null) {
+            channel.pipeline().addFirst(newSslHandler(context.config(), endpoint, channel.alloc()));
+        }
+        channel.pipeline().addLast(new IdleStateHandler(context.config().getIdleTimeoutS(), 0, 0));
+        channel.pipeline().addLast(new ClientHandler());
+        channel.pipeline().fireChannelActive();
+        channel.config().setAutoRead(true);
+    }
+
+    /**
+     * Create a {@link SslHandler} with the {@link SslContext} in {@link ClientConf}. The handler is
+     * bound to the address of LogProxy, so the session cached by the context can be resumed when
+     * the stream reconnects.
+     *
+     * @param config Client config.
+     * @param endpoint The endpoint of log proxy.
+     * @param alloc The allocator of the channel.
+     * @return A {@link SslHandler} instance.
+     */
+    static SslHandler newSslHandler(ClientConf config, Endpoint endpoint, ByteBufAllocator alloc) {
+        SslContext sslContext = config.getSslContext();
+        if (config.isSslSessionCache()
+                && sslContext.sessionContext() instanceof OpenSslSessionContext) {
+            // the client session cache of OpenSSL is disabled by netty by default
+            ((OpenSslSessionContext) sslContext.sessionContext()).setSessionCacheEnabled(true);
+        }
+        return sslContext.newHandler(alloc, endpoint.getHost(), endpoint.getPort());
+    }
+
+    /**
+     * Apply the socket and allocator options in {@link ClientConf} to a {@link Bootstrap}.
+     *
+     * @param bootstrap A {@link Bootstrap} instance.
+     * @param channelClass The channel class of the bootstrap.
+     * @param config Client config.
+     */
+    private void applyOptions(
+            Bootstrap bootstrap, Class<? extends Channel> channelClass, ClientConf config) {
+        if (config.getReceiveBufferSize() > 0) {
+            bootstrap.option(ChannelOption.SO_RCVBUF, config.getReceiveBufferSize());
+        }
+        switch (config.getRecvBufAllocatorType()) {
+            case ADAPTIVE:
+                bootstrap.option(
+                        ChannelOption.RCVBUF_ALLOCATOR,
+                        new AdaptiveRecvByteBufAllocator(
+                                config.getRecvBufMinSize(),
+                                config.getRecvBufInitialSize(),
+                                config.getRecvBufMaxSize()));
+                break;
+            case FIXED:
+                bootstrap.option(
+                        ChannelOption.RCVBUF_ALLOCATOR,
+                        new FixedRecvByteBufAllocator(config.getRecvBufMaxSize()));
+                break;
+            case DEFAULT:
+            default:
+                break;
+        }
+        ByteBufAllocator allocator = byteBufAllocator(config.getByteBufAllocatorType());
+        if (allocator != null) {
+            bootstrap.option(ChannelOption.ALLOCATOR, allocator);
+        }
+        if (NettyEventLoopUtil.isEpoll(channelClass)) {
+            if (config.isTcpQuickAck()) {
+                bootstrap.option(EpollChannelOption.TCP_QUICKACK, true);
+            }
+            if (config.getTcpUserTimeoutMs() > 0) {
+                bootstrap.option(EpollChannelOption.TCP_USER_TIMEOUT, config.getTcpUserTimeoutMs());
+            }
+        }
+    }
+
+    /**
+     * Get the {@link ByteBufAllocator} of specific type.
+     *
+     * @param type The allocator type.
+     * @return A {@link ByteBufAllocator} instance, or null for {@link
+     *     ByteBufAllocatorType#DEFAULT}.
+     */
+    private static ByteBufAllocator byteBufAllocator(ByteBufAllocatorType type) {
+        switch (type) {
+            case POOLED_DIRECT:
+                return Allocators.POOLED_DIRECT;
+            case POOLED_HEAP:
+                return Allocators.POOLED_HEAP;
+            case UNPOOLED_DIRECT:
+                return Allocators.UNPOOLED_DIRECT;
+            case UNPOOLED_HEAP:
+                return Allocators.UNPOOLED_HEAP;
+            case DEFAULT:
+            default:
+                return null;
+        }
+    }
+
+    /** A static class that holds the shared {@link ByteBufAllocator} instances. */
+    private static class Allocators {
+
+        /** Pooled allocator which prefers direct buffers. */
+        private static final ByteBufAllocator POOLED_DIRECT = new PooledByteBufAllocator(true);
+
+        /** Pooled allocator which prefers heap buffers. */
+        private static final ByteBufAllocator POOLED_HEAP = new PooledByteBufAllocator(false);
+
+        /** Unpooled allocator which prefers direct buffers. */
+        private static final ByteBufAllocator UNPOOLED_DIRECT = new UnpooledByteBufAllocator(true);
+
+        /** Unpooled allocator which prefers heap buffers. */
+        private static final ByteBufAllocator UNPOOLED_HEAP = new UnpooledByteBufAllocator(false);
+    }
+
+    /**
+     * Get the address of an endpoint of log proxy.
+     *
+     * @param endpoint The endpoint of log proxy.
+     * @return A {@link DomainSocketAddress} if the endpoint is a unix domain socket, otherwise an
+     *     {@link InetSocketAddress}.
+     */
+    private static SocketAddress remoteAddress(Endpoint endpoint) {
+        if (endpoint.isDomainSocket()) {
+            return new DomainSocketAddress(endpoint.getDomainSocketPath());
+        }
+        return new InetSocketAddress(endpoint.getHost(), endpoint.getPort());
+    }
+
+    /**
+     * Create a {@link Connection} with specific {@link StreamContext}. If there are multiple
+     * endpoints of log proxy, the connections to them are raced by {@link ConnectRace}, starting
+     * from the endpoint next to the one connected last time.
      *
      * @param context Stream context.
      * @return A {@link Connection}.
      * @throws LogProxyClientException If exception occurs.
      */
     public Connection createConnection(StreamContext context) throws LogProxyClientException {
-        Bootstrap bootstrap = initBootstrap(context);
-        bootstrap.option(
-                ChannelOption.CONNECT_TIMEOUT_MILLIS, context.config().getConnectTimeoutMs());
-        ChannelFuture channelFuture =
-                bootstrap.connect(
-                        new InetSocketAddress(
-                                context.params().getHost(), context.params().getPort()));
-        channelFuture.awaitUninterruptibly();
-        if (!channelFuture.isDone()) {
+        EventLoopGroup workerGroup =
+                context.workerGroup() != null
+                        ? context.workerGroup()
+                        : sharedWorkerGroup(
+                                transportType(context.config(), context.params()),
+                                context.config().getWorkerThreads());
+        List<Endpoint> endpoints = context.params().getEndpoints();
+        int first = context.nextEndpoint() % endpoints.size();
+        ConnectRace race =
+                new ConnectRace(
+                        endpoints.size(),
+                        i -> {
+                            Endpoint endpoint = endpoints.get((first + i) % endpoints.size());
+                            return initBootstrap(context, endpoint, workerGroup)
+                                    .connect(remoteAddress(endpoint));
+                        },
+                        context.config().getConnectAttemptDelayMs(),
+                        workerGroup.next());
+        Future<Channel> future = race.start();
+        // the last attempt starts at most after the delays of the others
+        long timeoutMs =
+                context.config().getConnectTimeoutMs()
+                        + (long) context.config().getConnectAttemptDelayMs()
+                                * (endpoints.size() - 1);
+        if (!future.awaitUninterruptibly(timeoutMs, TimeUnit.MILLISECONDS) && race.cancel()) {
             throw new LogProxyClientException(ErrorCode.E_CONNECT, "timeout of create connection!");
         }
-        if (channelFuture.isCancelled()) {
+        if (future.isCancelled()) {
             throw new LogProxyClientException(
                     ErrorCode.E_CONNECT, "cancelled by user of create connection!");
         }
-        if (!channelFuture.isSuccess()) {
+        if (!future.isSuccess()) {
             throw new LogProxyClientException(
-                    ErrorCode.E_CONNECT, "failed to create connection!", channelFuture.cause());
+                    ErrorCode.E_CONNECT, "failed to create connection!", future.cause());
         }
-        return new Connection(channelFuture.channel());
+        int index = (first + race.winnerIndex()) % endpoints.size();
+        // start from the next endpoint on reconnection, so a broken one is not tried first
+        context.nextEndpoint((index + 1) % endpoints.size());
+        Channel channel = future.getNow();
+        channel.eventLoop().execute(() -> initPipeline(context, endpoints.get(index), channel));
+        return new Connection(channel);
     }
 }
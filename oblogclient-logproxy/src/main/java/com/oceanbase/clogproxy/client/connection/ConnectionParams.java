@@ -23,21 +23,34 @@ import com.oceanbase.clogproxy.common.packet.ProtocolVersion;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /** This is a configuration class of connection parameters. */
 public class ConnectionParams {
 
+    /** Scheme prefix of the host which refers to a unix domain socket. */
+    public static final String DOMAIN_SOCKET_SCHEME = "unix://";
+
     /** Log type. */
     private final LogType logType;
 
     /** Client id. */
     private final String clientId;
 
-    /** Log proxy host. */
+    /**
+     * Log proxy host, or "unix://path" for a unix domain socket. It can also be a comma-separated
+     * list of endpoints in format "host[:port]" or "unix://path".
+     */
     private final String host;
 
-    /** Log proxy port. */
+    /** Log proxy port, which is the default port of the endpoints in {@link #host}. */
     private final int port;
 
+    /** Endpoints of log proxy parsed from {@link #host} and {@link #port}. */
+    private final List<Endpoint> endpoints;
+
     /** Connection config. */
     private final ConnectionConfig connectionConfig;
 
@@ -55,7 +68,7 @@ public class ConnectionParams {
      *
      * @param logType Log type.
      * @param clientId Client id.
-     * @param host Log proxy host.
+     * @param host Log proxy host, or a comma-separated list of endpoints.
      * @param port Log proxy port.
      * @param connectionConfig Connection config.
      */
@@ -69,6 +82,7 @@ public class ConnectionParams {
         this.clientId = clientId;
         this.host = host;
         this.port = port;
+        this.endpoints = Endpoint.parse(host, port);
         this.connectionConfig = connectionConfig;
         this.configurationString = connectionConfig.generateConfigurationString();
     }
@@ -124,6 +138,24 @@ public class ConnectionParams {
         return host;
     }
 
+    /**
+     * Get the endpoints of log proxy parsed from the host.
+     *
+     * @return An unmodifiable list of {@link Endpoint}.
+     */
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Check whether any endpoint of log proxy is a unix domain socket.
+     *
+     * @return True if there is a unix domain socket endpoint.
+     */
+    public boolean hasDomainSocket() {
+        return endpoints.stream().anyMatch(Endpoint::isDomainSocket);
+    }
+
     /**
      * Get the port of log proxy.
      *
@@ -177,4 +209,124 @@ public class ConnectionParams {
     public void setEnableMonitor(boolean enableMonitor) {
         this.enableMonitor = enableMonitor;
     }
+
+    /** An endpoint of log proxy, which is a host and port, or the path of a unix domain socket. */
+    public static final class Endpoint {
+
+        /** Host name or ip, or "unix://path" for a unix domain socket. */
+        private final String host;
+
+        /** Port, which is meaningless for a unix domain socket. */
+        private final int port;
+
+        /**
+         * Sole constructor.
+         *
+         * @param host Host name or ip, or "unix://path" for a unix domain socket.
+         * @param port Port.
+         */
+        public Endpoint(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        /**
+         * Parse a comma-separated list of endpoints. Each one is in format "host", "host:port",
+         * "[ipv6]:port" or "unix://path", and the default port is used if it's absent.
+         *
+         * @param hosts The comma-separated list of endpoints.
+         * @param defaultPort The default port.
+         * @return An unmodifiable list of {@link Endpoint}.
+         */
+        static List<Endpoint> parse(String hosts, int defaultPort) {
+            List<Endpoint> endpoints = new ArrayList<>();
+            for (String value : hosts.split(",")) {
+                value = value.trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                if (value.startsWith(DOMAIN_SOCKET_SCHEME)) {
+                    endpoints.add(new Endpoint(value, defaultPort));
+                    continue;
+                }
+                int colon = value.lastIndexOf(':');
+                if (value.startsWith("[")) {
+                    int bracket = value.indexOf(']');
+                    int port =
+                            colon > bracket ? parsePort(value.substring(colon + 1)) : defaultPort;
+                    endpoints.add(new Endpoint(value.substring(1, bracket), port));
+                } else if (colon > 0 && value.indexOf(':') == colon) {
+                    endpoints.add(
+                            new Endpoint(
+                                    value.substring(0, colon),
+                                    parsePort(value.substring(colon + 1))));
+                } else {
+                    // a host name, ipv4 or ipv6 address without port
+                    endpoints.add(new Endpoint(value, defaultPort));
+                }
+            }
+            if (endpoints.isEmpty()) {
+                throw new IllegalArgumentException("No endpoint in host: " + hosts);
+            }
+            return Collections.unmodifiableList(endpoints);
+        }
+
+        /**
+         * Parse a port number.
+         *
+         * @param port The port string.
+         * @return The port number.
+         */
+        private static int parsePort(String port) {
+            try {
+                return Integer.parseInt(port.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid port: " + port);
+            }
+        }
+
+        /**
+         * Get the host.
+         *
+         * @return Host name or ip, or "unix://path" for a unix domain socket.
+         */
+        public String getHost() {
+            return host;
+        }
+
+        /**
+         * Get the port.
+         *
+         * @return Port.
+         */
+        public int getPort() {
+            return port;
+        }
+
+        /**
+         * Check whether the endpoint is a unix domain socket.
+         *
+         * @return True if the endpoint is a unix domain socket.
+         */
+        public boolean isDomainSocket() {
+            return host.startsWith(DOMAIN_SOCKET_SCHEME);
+        }
+
+        /**
+         * Get the path of the unix domain socket.
+         *
+         * @return The path of the unix domain socket, or null if it is not a unix domain socket.
+         */
+        public String getDomainSocketPath() {
+            return isDomainSocket() ? host.substring(DOMAIN_SOCKET_SCHEME.length()) : null;
+        }
+
+        @Override
+        public String toString() {
+            if (isDomainSocket()) {
+                return host;
+            }
+            return host.indexOf(':') >= 0 ? "[" + host + "]:" + port : host + ":" + port;
+        }
+    }
 }
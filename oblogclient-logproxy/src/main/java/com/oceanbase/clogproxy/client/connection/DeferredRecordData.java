@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.config.ClientConf;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.function.Consumer;
+
+/**
+ * A record data packet which is put into the record queue as it is received, and is decompressed
+ * and parsed by the consumer of the queue. See {@link ClientConf#isDeferredDecode()}.
+ *
+ * <p>The packet is a copy of the channel buffer, so it holds only the compressed records and stays
+ * valid after the channel buffer is reused.
+ */
+class DeferredRecordData {
+
+    /** The buffer that holds the packet in its readable bytes. */
+    private final ByteBuf packet;
+
+    /** The handler which received the packet. */
+    private final ClientHandler handler;
+
+    /** Size of the packet in bytes. */
+    private final int size;
+
+    /**
+     * Sole constructor.
+     *
+     * @param packet The buffer that holds the packet in its readable bytes.
+     * @param handler The handler which received the packet.
+     */
+    DeferredRecordData(ByteBuf packet, ClientHandler handler) {
+        this.packet = packet;
+        this.handler = handler;
+        this.size = packet.readableBytes();
+    }
+
+    /**
+     * Get the size of the packet.
+     *
+     * @return Size of the packet in bytes.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Decompress the packet if necessary, and pass the parsed records to the consumer one by one.
+     *
+     * @param out The consumer of the parsed records.
+     */
+    void decode(Consumer<StreamContext.TransferPacket> out) {
+        handler.decodeRecordData(packet, packet.readableBytes(), out);
+    }
+
+    /** Release the buffer of the packet, the packet must not be decoded after then. */
+    void release() {
+        packet.release();
+    }
+}
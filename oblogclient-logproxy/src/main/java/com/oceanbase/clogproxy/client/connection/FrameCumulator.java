@@ -0,0 +1,68 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.ByteToMessageDecoder.Cumulator;
+
+/**
+ * A {@link Cumulator} which is aware of the length of the frame being received.
+ *
+ * <p>{@link ByteToMessageDecoder#MERGE_CUMULATOR} grows the cumulation step by step, so a large
+ * frame which arrives across many reads is copied again on each expansion. Once the handler knows
+ * the number of bytes needed to complete the current frame, this cumulator allocates a buffer that
+ * can hold the whole frame at once, and the rest of the frame is appended without any further
+ * reallocation.
+ */
+class FrameCumulator implements Cumulator {
+
+    /** Number of readable bytes needed to complete the current frame, 0 if unknown. */
+    private int expectedBytes = 0;
+
+    /**
+     * Set the number of readable bytes needed to complete the current frame.
+     *
+     * @param expectedBytes Number of bytes counted from the reader index of the cumulation, 0 if
+     *     unknown.
+     */
+    void expect(int expectedBytes) {
+        this.expectedBytes = expectedBytes;
+    }
+
+    @Override
+    public ByteBuf cumulate(ByteBufAllocator alloc, ByteBuf cumulation, ByteBuf in) {
+        int readable = cumulation.readableBytes();
+        if (expectedBytes > readable + in.readableBytes()
+                && (expectedBytes - readable > cumulation.maxFastWritableBytes()
+                        || cumulation.refCnt() > 1
+                        || cumulation.isReadOnly())) {
+            ByteBuf frame = alloc.buffer(expectedBytes);
+            try {
+                frame.writeBytes(cumulation, cumulation.readerIndex(), readable);
+            } catch (Throwable t) {
+                frame.release();
+                in.release();
+                throw t;
+            }
+            cumulation.release();
+            cumulation = frame;
+        }
+        return ByteToMessageDecoder.MERGE_CUMULATOR.cumulate(alloc, cumulation, in);
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.enums.ErrorCode;
+import com.oceanbase.clogproxy.client.exception.LogProxyClientException;
+import com.oceanbase.clogproxy.client.listener.BatchRecordListener;
+import com.oceanbase.clogproxy.client.listener.RecordListener;
+import com.oceanbase.oms.logmessage.LogMessage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * This class dispatches the rows of a stream to several lanes, each of which notifies the record
+ * listeners in a thread of its own. A row goes to the lane chosen by {@link
+ * LogMessage#getKeyHash()}, so the rows of the same key are delivered in order. Other records, such
+ * as BEGIN, COMMIT, DDL and heartbeats, are barriers: they are delivered by the caller thread after
+ * all lanes complete the rows before them. So is an update changing the key of a row, see {@link
+ * LogMessage#isKeyHashChanged()}, as the rows of its old key and its new key may be in two lanes.
+ *
+ * <p>Each lane reports the sequence of the last submission it completed, and {@link
+ * #completedCheckpoint()} only returns the safe timestamp of a batch whose rows are completed by
+ * all lanes.
+ *
+ * <p>Except the lane threads, all methods must be called by the process thread of the stream.
+ */
+class LaneDispatcher {
+
+    /** The max count of pending submissions of a lane. */
+    private static final int LANE_CAPACITY = 1024;
+
+    /** The task to stop a lane. */
+    private static final Runnable STOP = () -> {};
+
+    /** A lane which runs its submissions in order in a thread of its own. */
+    private static final class Lane implements Runnable {
+
+        /** The pending submissions, the producer is the process thread of the stream. */
+        private final SpscRingQueue<Runnable> tasks = new SpscRingQueue<>(LANE_CAPACITY);
+
+        /** The sequence of the last submission, only accessed by the process thread. */
+        private long submitted = 0;
+
+        /** The sequence of the last completed submission. */
+        private volatile long completed = 0;
+
+        /** The thread of the lane. */
+        private Thread thread;
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable task;
+                try {
+                    task = tasks.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (task == STOP) {
+                    return;
+                }
+                task.run();
+            }
+        }
+
+        /**
+         * Check whether there are submissions not completed.
+         *
+         * @return True if the lane is busy.
+         */
+        private boolean isBusy() {
+            return submitted != completed;
+        }
+    }
+
+    /** The position of a batch and the safe timestamp it leads to. */
+    private static final class Checkpoint {
+
+        /** The sequence of the last submission of the batch. */
+        private final long sequence;
+
+        /** The safe timestamp of the last record of the batch. */
+        private final String safeTimestamp;
+
+        /**
+         * Sole constructor.
+         *
+         * @param sequence The sequence of the last submission of the batch.
+         * @param safeTimestamp The safe timestamp of the last record of the batch.
+         */
+        private Checkpoint(long sequence, String safeTimestamp) {
+            this.sequence = sequence;
+            this.safeTimestamp = safeTimestamp;
+        }
+    }
+
+    /** The lanes. */
+    private final Lane[] lanes;
+
+    /** The record listeners. */
+    private final List<RecordListener> listeners;
+
+    /** Flag of whether the records are backed by pooled buffers. */
+    private final boolean pooled;
+
+    /** The rows collected for each lane before the next submission. */
+    private final List<List<LogMessage>> parts;
+
+    /** The checkpoints of the batches which are not completed by all lanes. */
+    private final Deque<Checkpoint> checkpoints = new ArrayDeque<>();
+
+    /** The sequence of the last submission. */
+    private long sequence = 0;
+
+    /** The first exception thrown by the listeners in lanes. */
+    private volatile Throwable failure;
+
+    /**
+     * Sole constructor.
+     *
+     * @param laneCount The count of lanes.
+     * @param listeners The record listeners, they must be thread-safe.
+     * @param pooled Flag of whether the records are backed by pooled buffers.
+     * @param threadFactory The factory of lane threads.
+     */
+    LaneDispatcher(
+            int laneCount,
+            List<RecordListener> listeners,
+            boolean pooled,
+            ThreadFactory threadFactory) {
+        this.lanes = new Lane[laneCount];
+        this.listeners = listeners;
+        this.pooled = pooled;
+        this.parts = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane();
+            lanes[i].thread = threadFactory.newThread(lanes[i]);
+            lanes[i].thread.start();
+            parts.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Notify the record listeners of a list of records in the order they are added. A {@link
+     * BatchRecordListener} receives the whole list, while the other listeners between them receive
+     * each record in turn before the next record, the same as without batching.
+     *
+     * @param listeners The record listeners.
+     * @param records The records.
+     */
+    static void notify(List<RecordListener> listeners, List<LogMessage> records) {
+        List<LogMessage> view = null;
+        int from = 0;
+        for (int i = 0; i <= listeners.size(); i++) {
+            if (i < listeners.size() && !(listeners.get(i) instanceof BatchRecordListener)) {
+                continue;
+            }
+            if (from < i) {
+                for (LogMessage record : records) {
+                    for (int j = from; j < i; j++) {
+                        listeners.get(j).notify(record);
+                    }
+                }
+            }
+            if (i < listeners.size()) {
+                if (view == null) {
+                    view = Collections.unmodifiableList(records);
+                }
+                ((BatchRecordListener) listeners.get(i)).notifyBatch(view);
+            }
+            from = i + 1;
+        }
+    }
+
+    /**
+     * Dispatch a batch of records to the lanes.
+     *
+     * @param records The records of the batch, in the order of the stream.
+     * @throws LogProxyClientException If the listeners in lanes have failed.
+     */
+    void dispatch(List<LogMessage> records) throws LogProxyClientException {
+        checkFailure();
+        for (LogMessage record : records) {
+            // an update which moves a row to another key is ordered with the rows of both keys
+            if (!isRow(record) || record.isKeyHashChanged()) {
+                submit();
+                await();
+                checkFailure();
+                notify(listeners, Collections.singletonList(record));
+                continue;
+            }
+            if (pooled && record.getByteBuff() != null) {
+                // the packet holding the record is released before the lane delivers it
+                record.getByteBuff().retain();
+            }
+            parts.get(Math.floorMod(record.getKeyHash(), lanes.length)).add(record);
+        }
+        submit();
+    }
+
+    /**
+     * Mark the safe timestamp which the checkpoint can move to once all lanes complete the rows
+     * dispatched so far.
+     *
+     * @param safeTimestamp The safe timestamp.
+     */
+    void markCheckpoint(String safeTimestamp) {
+        checkpoints.add(new Checkpoint(sequence, safeTimestamp));
+    }
+
+    /**
+     * Get the last safe timestamp marked by {@link #markCheckpoint(String)} whose rows are
+     * completed by all lanes, and forget it along with the ones before it.
+     *
+     * @return The safe timestamp, or null if no more batch is completed or the listeners in lanes
+     *     have failed.
+     */
+    String completedCheckpoint() {
+        long position = sequence;
+        for (Lane lane : lanes) {
+            long completed = lane.completed;
+            if (lane.submitted != completed) {
+                position = Math.min(position, completed);
+            }
+        }
+        if (failure != null) {
+            return null;
+        }
+        String safeTimestamp = null;
+        while (!checkpoints.isEmpty() && checkpoints.peek().sequence <= position) {
+            safeTimestamp = checkpoints.poll().safeTimestamp;
+        }
+        return safeTimestamp;
+    }
+
+    /** Stop the lanes after they complete the submitted rows. */
+    void close() {
+        for (Lane lane : lanes) {
+            try {
+                lane.tasks.put(STOP);
+                lane.thread.join();
+            } catch (InterruptedException e) {
+                lane.thread.interrupt();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Check whether a record is a row which can be delivered by a lane.
+     *
+     * @param record A {@link LogMessage}.
+     * @return True if the record is a row.
+     */
+    private static boolean isRow(LogMessage record) {
+        switch (record.getOpt()) {
+            case INSERT:
+            case UPDATE:
+            case DELETE:
+            case REPLACE:
+            case DML:
+            case INDEX_INSERT:
+            case INDEX_UPDATE:
+            case INDEX_DELETE:
+            case INDEX_REPLACE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Submit the collected rows to their lanes with a new sequence. */
+    private void submit() {
+        long seq = ++sequence;
+        for (int i = 0; i < lanes.length; i++) {
+            List<LogMessage> part = parts.get(i);
+            if (part.isEmpty()) {
+                continue;
+            }
+            parts.set(i, new ArrayList<>());
+            Lane lane = lanes[i];
+            lane.submitted = seq;
+            put(
+                    lane,
+                    () -> {
+                        boolean delivered = false;
+                        try {
+                            if (failure == null) {
+                                notify(listeners, part);
+                                delivered = true;
+                            }
+                        } catch (Throwable t) {
+                            failure = t;
+                        } finally {
+                            if (pooled) {
+                                for (LogMessage record : part) {
+                                    if (record.getByteBuff() != null) {
+                                        record.getByteBuff().release();
+                                    }
+                                }
+                            }
+                            // the parts skipped or failed are never completed
+                            if (delivered) {
+                                lane.completed = seq;
+                            }
+                        }
+                    });
+        }
+    }
+
+    /** Wait until all lanes complete the submitted rows. */
+    private void await() {
+        int busy = 0;
+        for (Lane lane : lanes) {
+            if (lane.isBusy()) {
+                busy++;
+            }
+        }
+        if (busy == 0) {
+            return;
+        }
+        CountDownLatch latch = new CountDownLatch(busy);
+        for (Lane lane : lanes) {
+            if (lane.isBusy()) {
+                put(lane, latch::countDown);
+            }
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Put a task into a lane, waiting for a free slot if the lane is full.
+     *
+     * @param lane The lane.
+     * @param task The task.
+     */
+    private static void put(Lane lane, Runnable task) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                lane.tasks.put(task);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Throw the exception of the listeners in lanes if there is one.
+     *
+     * @throws LogProxyClientException If the listeners in lanes have failed.
+     */
+    private void checkFailure() throws LogProxyClientException {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new LogProxyClientException(
+                    ErrorCode.E_USER, "Failed to notify listener in lane", cause);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class decides whether a connection is dead by the progress made on it, that is the bytes
+ * received and the packets delivered to the record queue, including heartbeat records and runtime
+ * status.
+ *
+ * <p>The timeout adapts to the intervals between progress in the same way as the retransmission
+ * timeout of TCP (RFC 6298): it is the smoothed interval plus four times its deviation, bounded by
+ * the minimum and maximum timeout. A stream whose packets arrive in long bursts is therefore not
+ * reconnected just because it's quiet for longer than usual.
+ *
+ * <p>All methods must be called in the event loop of the channel.
+ */
+class LivenessTracker {
+
+    /** The lower bound of the timeout in nanoseconds. */
+    private final long minTimeoutNanos;
+
+    /** The upper bound of the timeout in nanoseconds. */
+    private final long maxTimeoutNanos;
+
+    /** The time of the last progress in nanoseconds. */
+    private long lastProgressNanos;
+
+    /** The smoothed interval between progress in nanoseconds, negative if there is no sample. */
+    private long smoothedIntervalNanos = -1;
+
+    /** The mean deviation of the interval between progress in nanoseconds. */
+    private long intervalDeviationNanos = 0;
+
+    /**
+     * Sole constructor.
+     *
+     * @param minTimeoutS The lower bound of the timeout in seconds.
+     * @param maxTimeoutS The upper bound of the timeout in seconds.
+     * @param nowNanos Current time in nanoseconds.
+     */
+    LivenessTracker(int minTimeoutS, int maxTimeoutS, long nowNanos) {
+        this.minTimeoutNanos = TimeUnit.SECONDS.toNanos(minTimeoutS);
+        this.maxTimeoutNanos = TimeUnit.SECONDS.toNanos(Math.max(minTimeoutS, maxTimeoutS));
+        this.lastProgressNanos = nowNanos;
+    }
+
+    /**
+     * Record a progress of the connection, and take the interval since the last progress as a
+     * sample of the timeout.
+     *
+     * @param nowNanos Current time in nanoseconds.
+     */
+    void progress(long nowNanos) {
+        long interval = nowNanos - lastProgressNanos;
+        lastProgressNanos = nowNanos;
+        if (smoothedIntervalNanos < 0) {
+            smoothedIntervalNanos = interval;
+            intervalDeviationNanos = interval / 2;
+        } else {
+            intervalDeviationNanos +=
+                    (Math.abs(smoothedIntervalNanos - interval) - intervalDeviationNanos) / 4;
+            smoothedIntervalNanos += (interval - smoothedIntervalNanos) / 8;
+        }
+    }
+
+    /**
+     * Restart the idle time without taking a sample, it's used when the connection is not read on
+     * purpose, e.g. when the record queue is full.
+     *
+     * @param nowNanos Current time in nanoseconds.
+     */
+    void reset(long nowNanos) {
+        lastProgressNanos = nowNanos;
+    }
+
+    /**
+     * Get the current timeout.
+     *
+     * @return The timeout in nanoseconds.
+     */
+    long timeoutNanos() {
+        if (smoothedIntervalNanos < 0) {
+            return minTimeoutNanos;
+        }
+        long timeout = smoothedIntervalNanos + 4 * intervalDeviationNanos;
+        return Math.min(maxTimeoutNanos, Math.max(minTimeoutNanos, timeout));
+    }
+
+    /**
+     * Get the time since the last progress.
+     *
+     * @param nowNanos Current time in nanoseconds.
+     * @return The idle time in nanoseconds.
+     */
+    long idleNanos(long nowNanos) {
+        return nowNanos - lastProgressNanos;
+    }
+
+    /**
+     * Check whether the connection is dead, that is no progress is made within the timeout.
+     *
+     * @param nowNanos Current time in nanoseconds.
+     * @return True if the connection is dead.
+     */
+    boolean isDead(long nowNanos) {
+        return idleNanos(nowNanos) >= timeoutNanos();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.config.ClientConf;
+import com.oceanbase.clogproxy.client.enums.ErrorCode;
+import com.oceanbase.clogproxy.client.exception.LogProxyClientException;
+import com.oceanbase.oms.logmessage.LogMessage;
+
+import io.netty.buffer.ByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * This class splits a decompressed record block into {@link LogMessage}s. Each record in the block
+ * is an 8 bytes prefix followed by the binary log message, and the length of the message is the int
+ * at offset 4 of the prefix.
+ *
+ * <p>Each {@link LogMessage} is backed by a slice of the block, and the slice is retained if the
+ * block is a pooled buffer. The block is split in two steps: a single pass over the prefixes builds
+ * an {@code int[]} index of record offsets, and then the records are parsed from the index.
+ */
+class RecordBlockSplitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordBlockSplitter.class);
+
+    /** Length of the prefix of each record. */
+    private static final int PREFIX_LENGTH = 8;
+
+    /**
+     * The splitter of V0 blocks, where the length is big-endian and the message passed to {@link
+     * LogMessage} starts after the prefix.
+     */
+    static final RecordBlockSplitter V0 = new RecordBlockSplitter(false, false);
+
+    /**
+     * The splitter of V1 and V2 blocks, where the length is little-endian and the message passed to
+     * {@link LogMessage} includes the prefix.
+     */
+    static final RecordBlockSplitter V2 = new RecordBlockSplitter(true, true);
+
+    /** Flag of whether the length in prefix is little-endian. */
+    private final boolean littleEndian;
+
+    /** Flag of whether the prefix is a part of the message. */
+    private final boolean withPrefix;
+
+    private RecordBlockSplitter(boolean littleEndian, boolean withPrefix) {
+        this.littleEndian = littleEndian;
+        this.withPrefix = withPrefix;
+    }
+
+    /**
+     * Scan the readable bytes of a block once and build the index of its records. The index holds
+     * the absolute offset of each record in the block, so the records can be parsed with {@link
+     * #parse(ByteBuf, int, boolean)} in any order, or by several threads at the same time.
+     *
+     * @param block A {@link ByteBuf} of record data.
+     * @return The offsets of the records in the block.
+     * @throws LogProxyClientException If the length of a record exceeds the block.
+     */
+    int[] index(ByteBuf block) throws LogProxyClientException {
+        int[] offsets = new int[16];
+        int count = 0;
+        int offset = block.readerIndex();
+        int end = block.writerIndex();
+        while (offset < end) {
+            if (end - offset < PREFIX_LENGTH) {
+                throw new LogProxyClientException(
+                        ErrorCode.E_LEN, "Record prefix exceeds the block at offset " + offset);
+            }
+            int dataLength = littleEndian ? block.getIntLE(offset + 4) : block.getInt(offset + 4);
+            if (dataLength < 0 || dataLength > end - offset - PREFIX_LENGTH) {
+                throw new LogProxyClientException(
+                        ErrorCode.E_LEN,
+                        "Record length [" + dataLength + "] exceeds the block at offset " + offset);
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count << 1);
+            }
+            offsets[count++] = offset;
+            offset += PREFIX_LENGTH + dataLength;
+        }
+        return count == offsets.length ? offsets : Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * Parse the record at an offset returned by {@link #index(ByteBuf)}.
+     *
+     * @param block A {@link ByteBuf} of record data.
+     * @param offset The offset of the record in the block.
+     * @param retain Flag of whether the {@link LogMessage} should hold a retained slice of the
+     *     block, which must be released by the caller.
+     * @return A {@link LogMessage} backed by a slice of the block.
+     * @throws Exception If the record can't be parsed, and the slice is released.
+     */
+    LogMessage parse(ByteBuf block, int offset, boolean retain) throws Exception {
+        int dataLength = littleEndian ? block.getIntLE(offset + 4) : block.getInt(offset + 4);
+        int index = withPrefix ? offset : offset + PREFIX_LENGTH;
+        int length = withPrefix ? dataLength + PREFIX_LENGTH : dataLength;
+
+        LogMessage logMessage = new LogMessage(false);
+        ByteBuf data = retain ? block.retainedSlice(index, length) : block.slice(index, length);
+        try {
+            logMessage.setByteBuf(data.order(ByteOrder.LITTLE_ENDIAN));
+        } catch (Exception e) {
+            if (retain) {
+                data.release();
+            }
+            throw e;
+        }
+        return logMessage;
+    }
+
+    /**
+     * Split the readable bytes of a block into records and pass them to the consumer.
+     *
+     * @param block A {@link ByteBuf} of record data.
+     * @param config Client config.
+     * @param out The consumer of the parsed records.
+     * @throws LogProxyClientException If the block is truncated, or a record can't be parsed and
+     *     unknown record types are not ignored.
+     */
+    void split(ByteBuf block, ClientConf config, Consumer<StreamContext.TransferPacket> out)
+            throws LogProxyClientException {
+        boolean pooled = config.isPooledDecompressBuffer();
+        for (int offset : index(block)) {
+            LogMessage logMessage;
+            try {
+                logMessage = parse(block, offset, pooled);
+            } catch (Exception e) {
+                if (config.isIgnoreUnknownRecordType()) {
+                    // unsupported type, ignore
+                    logger.debug("Unsupported record type at offset: {}", offset);
+                    continue;
+                }
+                throw new LogProxyClientException(ErrorCode.E_PARSE, e);
+            }
+
+            if (logger.isTraceEnabled()) {
+                logger.trace("Log message: {}", logMessage);
+            }
+
+            out.accept(new StreamContext.TransferPacket(logMessage));
+        }
+    }
+}
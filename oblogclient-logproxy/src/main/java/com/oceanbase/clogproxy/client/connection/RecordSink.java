@@ -0,0 +1,167 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.config.ClientConf;
+
+import io.netty.channel.Channel;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class moves decoded packets of a channel into the record queue without blocking the event
+ * loop. Packets that do not fit into the queue are parked here, and the channel stops reading by
+ * turning off auto read until the consumer drains the queue below the low watermark. In deferred
+ * decode mode the bytes of the queued packets are bounded by {@link
+ * ClientConf#getDeferredDecodeMaxBytes()} in the same way, with half of it as the low watermark.
+ *
+ * <p>Except {@link #signal()}, which is called by the consumer thread, all methods must be called
+ * in the event loop of the channel. As the channel is closed in the event loop as well, no packet
+ * is put into the record queue once the channel is closed, even by the tasks queued before it. So
+ * the channel of a reconnection is the only producer of the queue after the old one is closed.
+ */
+class RecordSink {
+
+    /** The context of the stream. */
+    private final StreamContext context;
+
+    /** The record queue of the stream. */
+    private final BlockingQueue<StreamContext.TransferPacket> recordQueue;
+
+    /** Packets decoded but not yet put into the record queue. */
+    private final Deque<StreamContext.TransferPacket> pending = new ArrayDeque<>();
+
+    /** The channel to control. */
+    private final Channel channel;
+
+    /** The task to run in the event loop when the channel should resume reading. */
+    private final Runnable resumeTask;
+
+    /** Queue size at which the channel stops reading. */
+    private final int highWatermark;
+
+    /** Queue size at which the channel resumes reading. */
+    private final int lowWatermark;
+
+    /** Bytes of the queued record data packets at which the channel stops reading, 0 if none. */
+    private final long highBytes;
+
+    /** Flag of whether the packets are backed by pooled buffers. */
+    private final boolean pooled;
+
+    /** Flag of whether the channel is paused. */
+    private final AtomicBoolean paused = new AtomicBoolean(false);
+
+    /**
+     * Sole constructor.
+     *
+     * @param context The context of the stream.
+     * @param channel The channel to control.
+     * @param resumeTask The task to run in the event loop when the channel should resume reading.
+     */
+    RecordSink(StreamContext context, Channel channel, Runnable resumeTask) {
+        this.context = context;
+        this.recordQueue = context.recordQueue();
+        this.channel = channel;
+        this.resumeTask = resumeTask;
+        ClientConf config = context.config();
+        this.highWatermark = config.getTransferQueueHighWatermark();
+        this.lowWatermark = config.getTransferQueueLowWatermark();
+        this.highBytes =
+                config.isDeferredDecode() ? Math.max(0, config.getDeferredDecodeMaxBytes()) : 0;
+        this.pooled = config.isPooledDecompressBuffer();
+    }
+
+    /**
+     * Add a packet to the end of the pending packets. It will be put into the record queue by
+     * {@link #flush()}.
+     *
+     * @param packet A {@link StreamContext.TransferPacket}.
+     */
+    void add(StreamContext.TransferPacket packet) {
+        pending.add(packet);
+    }
+
+    /**
+     * Move pending packets into the record queue until it is full, and pause the channel if there
+     * are packets left or the queue reaches the high watermark. The pending packets are dropped
+     * instead if the channel is closed.
+     *
+     * @return True if the channel can go on decoding, false if it is paused or closed.
+     */
+    boolean flush() {
+        if (!channel.isOpen()) {
+            discard();
+            return false;
+        }
+        StreamContext.TransferPacket packet;
+        while ((packet = pending.peek()) != null && recordQueue.offer(packet)) {
+            pending.poll();
+            context.addQueuedBytes(packet.queuedBytes());
+        }
+        if (pending.isEmpty()
+                && recordQueue.size() < highWatermark
+                && (highBytes == 0 || context.queuedBytes() < highBytes)) {
+            return true;
+        }
+        pause();
+        return false;
+    }
+
+    /**
+     * Get the flag of whether the channel is paused, a closed channel is always paused.
+     *
+     * @return True if the channel is paused or closed.
+     */
+    boolean isPaused() {
+        return paused.get() || !channel.isOpen();
+    }
+
+    /** Stop reading from the channel and wait for {@link #signal()}. */
+    private void pause() {
+        channel.config().setAutoRead(false);
+        paused.set(true);
+        // the consumer may have drained the queue before the flag is set
+        signal();
+    }
+
+    /**
+     * Notify that some packets are taken from the record queue. If the channel is paused and the
+     * queue is drained below the low watermarks, the resume task is submitted to the event loop.
+     */
+    void signal() {
+        if (paused.get()
+                && recordQueue.size() <= lowWatermark
+                && (highBytes == 0 || context.queuedBytes() <= highBytes / 2)
+                && paused.compareAndSet(true, false)) {
+            channel.eventLoop().execute(resumeTask);
+        }
+    }
+
+    /** Drop the pending packets, it should be called when the channel is closed. */
+    void discard() {
+        StreamContext.TransferPacket packet;
+        while ((packet = pending.poll()) != null) {
+            if (pooled) {
+                packet.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded {@link BlockingQueue} backed by a preallocated ring buffer, for exactly one producer
+ * thread and one consumer thread at a time. Unlike {@link
+ * java.util.concurrent.LinkedBlockingQueue}, it allocates nothing per element and takes no lock;
+ * the producer and the consumer only publish their own sequence counter, which is padded to a cache
+ * line of its own to avoid false sharing.
+ *
+ * <p>A blocked thread is parked and woken up by the other side only when it has announced itself as
+ * waiting, so the fast path of {@link #offer(Object)} and {@link #poll()} is free of system calls.
+ *
+ * <p>The producer or the consumer thread may change over time, e.g. on reconnection, as long as the
+ * switch is ordered by a happens-before relation such as waiting for the close future of the
+ * previous channel.
+ *
+ * @param <E> The type of elements.
+ */
+class SpscRingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    /** Padding before the sequence value. */
+    private abstract static class LhsPadding {
+        /** Padding fields. */
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    /** The sequence value. */
+    private abstract static class Value extends LhsPadding {
+        /** The value. */
+        volatile long value;
+
+        /** The last sequence of the other side seen by the owner, it's on the same cache line. */
+        long cached;
+    }
+
+    /** A sequence counter which occupies a cache line of its own. */
+    private static final class Sequence extends Value {
+        /** Padding fields. */
+        long p11, p12, p13, p14, p15, p16, p17;
+
+        /**
+         * Get the sequence value.
+         *
+         * @return The sequence value.
+         */
+        long get() {
+            return value;
+        }
+
+        /**
+         * Set the sequence value. It's a volatile write rather than a lazy set, so a following read
+         * of the waiter of the other side can't be reordered before it.
+         *
+         * @param value The sequence value.
+         */
+        void set(long value) {
+            this.value = value;
+        }
+    }
+
+    /** The elements, its length is a power of two not less than {@link #capacity}. */
+    private final AtomicReferenceArray<E> buffer;
+
+    /** The mask to map a sequence to an index of {@link #buffer}. */
+    private final int mask;
+
+    /** The max count of elements in the queue. */
+    private final int capacity;
+
+    /** The sequence of the next element to poll, written by the consumer only. */
+    private final Sequence head = new Sequence();
+
+    /** The sequence of the next element to offer, written by the producer only. */
+    private final Sequence tail = new Sequence();
+
+    /** Updater of {@link #waitingConsumer}. */
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<SpscRingQueue, Thread> CONSUMER =
+            AtomicReferenceFieldUpdater.newUpdater(
+                    SpscRingQueue.class, Thread.class, "waitingConsumer");
+
+    /** Updater of {@link #waitingProducer}. */
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<SpscRingQueue, Thread> PRODUCER =
+            AtomicReferenceFieldUpdater.newUpdater(
+                    SpscRingQueue.class, Thread.class, "waitingProducer");
+
+    /** The consumer thread parked for elements, or null. */
+    private volatile Thread waitingConsumer;
+
+    /** The producer thread parked for free slots, or null. */
+    private volatile Thread waitingProducer;
+
+    /**
+     * Sole constructor.
+     *
+     * @param capacity The max count of elements in the queue.
+     */
+    SpscRingQueue(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int length = 1;
+        while (length < capacity) {
+            length <<= 1;
+        }
+        this.buffer = new AtomicReferenceArray<>(length);
+        this.mask = length - 1;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        long t = tail.get();
+        // the cached head avoids reading the cache line of the consumer on every offer
+        if (t - tail.cached >= capacity) {
+            tail.cached = head.get();
+            if (t - tail.cached >= capacity) {
+                return false;
+            }
+        }
+        buffer.lazySet((int) t & mask, e);
+        tail.set(t + 1);
+        wakeUp(CONSUMER);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long h = head.get();
+        int index = (int) h & mask;
+        E e = buffer.get(index);
+        if (e == null) {
+            return null;
+        }
+        buffer.lazySet(index, null);
+        head.set(h + 1);
+        wakeUp(PRODUCER);
+        return e;
+    }
+
+    /**
+     * Wake up the thread waiting on the other side. The waiter is cleared before unparking, so it
+     * is unparked only once no matter how many elements are transferred before it runs again.
+     *
+     * @param updater The updater of the waiter field of the other side.
+     */
+    @SuppressWarnings("rawtypes")
+    private void wakeUp(AtomicReferenceFieldUpdater<SpscRingQueue, Thread> updater) {
+        Thread waiter = updater.get(this);
+        if (waiter != null && updater.compareAndSet(this, waiter, null)) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    @Override
+    public E peek() {
+        return buffer.get((int) head.get() & mask);
+    }
+
+    @Override
+    public int size() {
+        // read head first, so the result is never negative
+        long h = head.get();
+        long t = tail.get();
+        return (int) Math.max(0, Math.min(capacity, t - h));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        offer(e, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        if (offer(e)) {
+            return true;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Thread current = Thread.currentThread();
+        while (true) {
+            waitingProducer = current;
+            try {
+                // check again after announcing, the consumer may have polled before it
+                if (offer(e)) {
+                    return true;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            } finally {
+                waitingProducer = null;
+            }
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        return poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E e = poll();
+        if (e != null) {
+            return e;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Thread current = Thread.currentThread();
+        while (true) {
+            waitingConsumer = current;
+            try {
+                // check again after announcing, the producer may have offered before it
+                if (tail.get() != head.get() && (e = poll()) != null) {
+                    return e;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            } finally {
+                waitingConsumer = null;
+            }
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        int n = 0;
+        E e;
+        while (n < maxElements && (e = poll()) != null) {
+            c.add(e);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Get a weakly consistent iterator over the elements, which doesn't support removal. It should
+     * only be used by the consumer thread.
+     *
+     * @return An iterator over the elements.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            /** The sequence of the next element. */
+            private long next = head.get();
+
+            @Override
+            public boolean hasNext() {
+                return next < tail.get() && buffer.get((int) next & mask) != null;
+            }
+
+            @Override
+            public E next() {
+                E e = hasNext() ? buffer.get((int) next & mask) : null;
+                if (e == null) {
+                    throw new NoSuchElementException();
+                }
+                next++;
+                return e;
+            }
+        };
+    }
+}
@@ -17,12 +17,16 @@
 package com.oceanbase.clogproxy.client.connection;
 
 import com.oceanbase.clogproxy.client.config.ClientConf;
+import com.oceanbase.clogproxy.client.enums.TransferQueueType;
 import com.oceanbase.clogproxy.common.packet.HeaderType;
 import com.oceanbase.oms.logmessage.LogMessage;
 
+import io.netty.channel.EventLoopGroup;
+
 import java.util.Objects;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.oceanbase.clogproxy.common.packet.protocol.LogProxyProto.RuntimeStatus;
 
@@ -36,6 +40,8 @@ public class StreamContext {
         protected LogMessage record;
         /** Log proxy runtime status. */
         protected RuntimeStatus status;
+        /** Record data packet to be decoded by the consumer. */
+        protected DeferredRecordData recordData;
 
         /**
          * Constructor with a {@link LogMessage}.
@@ -57,6 +63,16 @@ public class StreamContext {
             this.status = status;
         }
 
+        /**
+         * Constructor with a {@link DeferredRecordData}.
+         *
+         * @param recordData A {@link DeferredRecordData}.
+         */
+        TransferPacket(DeferredRecordData recordData) {
+            this.type = HeaderType.DATA_CLIENT;
+            this.recordData = recordData;
+        }
+
         /**
          * Get header type.
          *
@@ -83,6 +99,38 @@ public class StreamContext {
         public RuntimeStatus getStatus() {
             return status;
         }
+
+        /**
+         * Get the record data packet to be decoded by the consumer.
+         *
+         * @return Record data packet, or null if the packet holds a decoded record.
+         */
+        DeferredRecordData getRecordData() {
+            return recordData;
+        }
+
+        /**
+         * Get the bytes counted by {@link StreamContext#queuedBytes()} for the packet.
+         *
+         * @return Size of the record data packet, or 0 if the packet holds a decoded record.
+         */
+        int queuedBytes() {
+            return recordData == null ? 0 : recordData.size();
+        }
+
+        /**
+         * Release the buffer of the log message record or the record data packet. It should only be
+         * called when the record is backed by a pooled buffer, and the record must not be used
+         * after then.
+         */
+        public void release() {
+            if (record != null && record.getByteBuff() != null) {
+                record.getByteBuff().release();
+            }
+            if (recordData != null) {
+                recordData.release();
+            }
+        }
     }
 
     /** Blocking queue which stores {@link TransferPacket}. */
@@ -97,6 +145,21 @@ public class StreamContext {
     /** Connection params. */
     private final ConnectionParams params;
 
+    /** Bytes of the record data packets in the record queue. */
+    private final AtomicLong queuedBytes = new AtomicLong();
+
+    /** Record sink of the current connection. */
+    private volatile RecordSink recordSink;
+
+    /** Worker group used by the connections of the stream. */
+    private volatile EventLoopGroup workerGroup;
+
+    /** Time spent on the last successful SSL handshake in nanoseconds, 0 if there is none. */
+    private volatile long sslHandshakeNanos = 0;
+
+    /** Index of the endpoint from which the next connection starts the race. */
+    private volatile int nextEndpoint = 0;
+
     /**
      * Constructor of StreamContext.
      *
@@ -108,7 +171,10 @@ public class StreamContext {
         this.stream = Objects.requireNonNull(stream);
         this.config = Objects.requireNonNull(config);
         this.params = Objects.requireNonNull(params);
-        this.recordQueue = new LinkedBlockingQueue<>(config.getTransferQueueSize());
+        this.recordQueue =
+                config.getTransferQueueType() == TransferQueueType.LINKED
+                        ? new LinkedBlockingQueue<>(config.getTransferQueueSize())
+                        : new SpscRingQueue<>(config.getTransferQueueSize());
     }
 
     /**
@@ -146,4 +212,98 @@ public class StreamContext {
     public BlockingQueue<TransferPacket> recordQueue() {
         return recordQueue;
     }
+
+    /**
+     * Get the bytes of the record data packets in the record queue, which are only put into the
+     * queue in deferred decode mode.
+     *
+     * @return Bytes of the queued record data packets.
+     */
+    long queuedBytes() {
+        return queuedBytes.get();
+    }
+
+    /**
+     * Update the bytes of the record data packets in the record queue.
+     *
+     * @param delta Bytes of the packets put into the queue, or negative bytes of the packets taken
+     *     from it.
+     */
+    void addQueuedBytes(long delta) {
+        if (delta != 0) {
+            queuedBytes.addAndGet(delta);
+        }
+    }
+
+    /**
+     * Get the worker group.
+     *
+     * @return Worker group, or null if the stream is not started.
+     */
+    public EventLoopGroup workerGroup() {
+        return workerGroup;
+    }
+
+    /**
+     * Set the worker group.
+     *
+     * @param workerGroup Worker group.
+     */
+    void workerGroup(EventLoopGroup workerGroup) {
+        this.workerGroup = workerGroup;
+    }
+
+    /**
+     * Get the record sink of the current connection.
+     *
+     * @return Record sink, or null if there is no active connection.
+     */
+    RecordSink recordSink() {
+        return recordSink;
+    }
+
+    /**
+     * Set the record sink of the current connection.
+     *
+     * @param recordSink Record sink.
+     */
+    void recordSink(RecordSink recordSink) {
+        this.recordSink = recordSink;
+    }
+
+    /**
+     * Get the time spent on the last successful SSL handshake.
+     *
+     * @return Handshake time in nanoseconds, 0 if there is none.
+     */
+    public long sslHandshakeNanos() {
+        return sslHandshakeNanos;
+    }
+
+    /**
+     * Set the time spent on the last successful SSL handshake.
+     *
+     * @param sslHandshakeNanos Handshake time in nanoseconds.
+     */
+    void sslHandshakeNanos(long sslHandshakeNanos) {
+        this.sslHandshakeNanos = sslHandshakeNanos;
+    }
+
+    /**
+     * Get the index of the endpoint from which the next connection starts the race.
+     *
+     * @return Index in {@link ConnectionParams#getEndpoints()}.
+     */
+    int nextEndpoint() {
+        return nextEndpoint;
+    }
+
+    /**
+     * Set the index of the endpoint from which the next connection starts the race.
+     *
+     * @param nextEndpoint Index in {@link ConnectionParams#getEndpoints()}.
+     */
+    void nextEndpoint(int nextEndpoint) {
+        this.nextEndpoint = nextEndpoint;
+    }
 }
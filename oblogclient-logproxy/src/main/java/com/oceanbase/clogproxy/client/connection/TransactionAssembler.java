@@ -0,0 +1,164 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.listener.Transaction;
+import com.oceanbase.oms.logmessage.LogMessage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This class groups the records of a stream into {@link Transaction}s. Rows are collected from a
+ * BEGIN record until a COMMIT or ROLLBACK record, and rows received without a BEGIN record start a
+ * transaction implicitly, which happens when the stream starts in the middle of a transaction.
+ * Heartbeats are skipped, and a DDL record outside any transaction is a transaction of its own.
+ *
+ * <p>If the records are backed by pooled buffers, the records of an open transaction are retained
+ * until it is delivered, since they outlive the packets which hold them.
+ */
+class TransactionAssembler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionAssembler.class);
+
+    /** Flag of whether the records are backed by pooled buffers. */
+    private final boolean pooled;
+
+    /** The BEGIN record of the open transaction. */
+    private LogMessage begin;
+
+    /** The rows of the open transaction. */
+    private List<LogMessage> rows = new ArrayList<>();
+
+    /** Flag of whether a transaction is open. */
+    private boolean open = false;
+
+    /**
+     * Sole constructor.
+     *
+     * @param pooled Flag of whether the records are backed by pooled buffers.
+     */
+    TransactionAssembler(boolean pooled) {
+        this.pooled = pooled;
+    }
+
+    /**
+     * Add a record, and pass the transaction to the consumer if it is completed by the record.
+     *
+     * @param record A {@link LogMessage}.
+     * @param out The consumer of the completed transactions.
+     */
+    void add(LogMessage record, Consumer<Transaction> out) {
+        switch (record.getOpt()) {
+            case BEGIN:
+                if (open) {
+                    logger.warn("Drop an incomplete transaction of {} rows", rows.size());
+                    reset();
+                }
+                open = true;
+                begin = retain(record);
+                break;
+            case COMMIT:
+            case ROLLBACK:
+                if (!open) {
+                    logger.debug("Skip {} record outside any transaction", record.getOpt());
+                    break;
+                }
+                complete(new Transaction(begin, rows, record), out);
+                break;
+            case DDL:
+                if (open) {
+                    rows.add(retain(record));
+                } else {
+                    List<LogMessage> ddl = new ArrayList<>(1);
+                    ddl.add(record);
+                    out.accept(new Transaction(null, ddl, record));
+                }
+                break;
+            case HEARTBEAT:
+            case CONSISTENCY_TEST:
+                break;
+            default:
+                open = true;
+                rows.add(retain(record));
+                break;
+        }
+    }
+
+    /**
+     * Deliver a completed transaction and start a new one.
+     *
+     * @param transaction The completed transaction.
+     * @param out The consumer of the completed transactions.
+     */
+    private void complete(Transaction transaction, Consumer<Transaction> out) {
+        try {
+            out.accept(transaction);
+        } finally {
+            reset();
+        }
+    }
+
+    /**
+     * Check whether a transaction is open, that is, the records added so far end in the middle of a
+     * transaction.
+     *
+     * @return True if a transaction is open.
+     */
+    boolean isOpen() {
+        return open;
+    }
+
+    /** Drop the open transaction, it should be called when the stream reconnects. */
+    void reset() {
+        if (pooled) {
+            release(begin);
+            rows.forEach(TransactionAssembler::release);
+        }
+        begin = null;
+        rows = new ArrayList<>();
+        open = false;
+    }
+
+    /**
+     * Retain the buffer of a record if it is pooled.
+     *
+     * @param record A {@link LogMessage}.
+     * @return The record.
+     */
+    private LogMessage retain(LogMessage record) {
+        if (pooled && record.getByteBuff() != null) {
+            record.getByteBuff().retain();
+        }
+        return record;
+    }
+
+    /**
+     * Release the buffer of a record retained by {@link #retain(LogMessage)}.
+     *
+     * @param record A {@link LogMessage}, or null.
+     */
+    private static void release(LogMessage record) {
+        if (record != null && record.getByteBuff() != null) {
+            record.getByteBuff().release();
+        }
+    }
+}
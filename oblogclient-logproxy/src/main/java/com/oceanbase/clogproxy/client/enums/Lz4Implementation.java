@@ -0,0 +1,33 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.enums;
+
+/** Implementation enumeration of the LZ4 codec, see {@link net.jpountz.lz4.LZ4Factory}. */
+public enum Lz4Implementation {
+
+    /** Use the fastest available implementation, in the order of JNI, Java unsafe and Java safe. */
+    FASTEST,
+
+    /** Use the JNI binding, it fails if the native library can't be loaded on the host. */
+    JNI,
+
+    /** Use the pure Java implementation based on {@code sun.misc.Unsafe}. */
+    JAVA_UNSAFE,
+
+    /** Use the pure Java implementation that only uses the public API. */
+    JAVA_SAFE
+}
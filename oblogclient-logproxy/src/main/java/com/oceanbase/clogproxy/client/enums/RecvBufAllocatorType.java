@@ -0,0 +1,32 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.enums;
+
+/** Type enumeration of the {@link io.netty.channel.RecvByteBufAllocator} used by the channel. */
+public enum RecvBufAllocatorType {
+
+    /** Use the default allocator of the channel. */
+    DEFAULT,
+
+    /**
+     * Use an {@link io.netty.channel.AdaptiveRecvByteBufAllocator} with min, initial and max size.
+     */
+    ADAPTIVE,
+
+    /** Use a {@link io.netty.channel.FixedRecvByteBufAllocator} with max size. */
+    FIXED
+}
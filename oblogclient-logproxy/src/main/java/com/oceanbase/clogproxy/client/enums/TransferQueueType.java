@@ -0,0 +1,31 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.enums;
+
+/** Type enumeration of the queue which transfers records from the channel to the stream thread. */
+public enum TransferQueueType {
+
+    /**
+     * Use a preallocated single-producer single-consumer ring buffer, which takes no lock and
+     * allocates nothing per record. It relies on the channel being the only producer, the tasks of
+     * a closed channel never offer records, so the channel of a reconnection takes over safely.
+     */
+    SPSC_RING,
+
+    /** Use a {@link java.util.concurrent.LinkedBlockingQueue}. */
+    LINKED
+}
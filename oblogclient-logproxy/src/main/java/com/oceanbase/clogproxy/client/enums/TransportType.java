@@ -0,0 +1,36 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.enums;
+
+/** Transport type enumeration of the netty channel. */
+public enum TransportType {
+
+    /** Use epoll if available, otherwise NIO. */
+    AUTO,
+
+    /**
+     * Use io_uring, which requires netty-incubator-transport-native-io_uring in the classpath. It
+     * falls back to epoll and then NIO if io_uring is not available.
+     */
+    IO_URING,
+
+    /** Use epoll, it falls back to NIO if epoll is not available. */
+    EPOLL,
+
+    /** Use NIO. */
+    NIO
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.listener;
+
+import com.oceanbase.oms.logmessage.LogMessage;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This interface defined a kind of listener which receives records in batches. The size of a batch
+ * is bounded by {@link com.oceanbase.clogproxy.client.config.ClientConf#getBatchMaxRecords()},
+ * {@link com.oceanbase.clogproxy.client.config.ClientConf#getBatchMaxBytes()} and {@link
+ * com.oceanbase.clogproxy.client.config.ClientConf#getBatchLingerMs()}.
+ */
+public interface BatchRecordListener extends RecordListener {
+
+    /**
+     * Handle a batch of {@link LogMessage}. The list is only valid during the call, and the
+     * checkpoint of the stream advances after it returns.
+     *
+     * @param logMessages A non-empty list of {@link LogMessage} in the order of the stream.
+     */
+    void notifyBatch(List<LogMessage> logMessages);
+
+    /**
+     * Handle a single {@link LogMessage} as a batch of one record.
+     *
+     * @param logMessage A {@link LogMessage} instance.
+     */
+    @Override
+    default void notify(LogMessage logMessage) {
+        notifyBatch(Collections.singletonList(logMessage));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.listener;
+
+import com.oceanbase.oms.logmessage.DataMessage;
+import com.oceanbase.oms.logmessage.LogMessage;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents a transaction assembled from the records between a BEGIN record and a
+ * COMMIT or ROLLBACK record. A DDL record outside any transaction is also delivered as a
+ * transaction which contains only itself.
+ */
+public class Transaction {
+
+    /** The BEGIN record, or null if the transaction started before the stream. */
+    private final LogMessage begin;
+
+    /** The rows of the transaction. */
+    private final List<LogMessage> rows;
+
+    /** The COMMIT or ROLLBACK record, or the DDL record of a DDL transaction. */
+    private final LogMessage end;
+
+    /**
+     * Sole constructor.
+     *
+     * @param begin The BEGIN record, or null if it is not received.
+     * @param rows The rows of the transaction.
+     * @param end The COMMIT or ROLLBACK record, or the DDL record of a DDL transaction.
+     */
+    public Transaction(LogMessage begin, List<LogMessage> rows, LogMessage end) {
+        this.begin = begin;
+        this.rows = Collections.unmodifiableList(rows);
+        this.end = end;
+    }
+
+    /**
+     * Get the BEGIN record.
+     *
+     * @return The BEGIN record, or null if the transaction started before the stream.
+     */
+    public LogMessage getBegin() {
+        return begin;
+    }
+
+    /**
+     * Get the rows of the transaction, for a DDL transaction it's the DDL record.
+     *
+     * @return An unmodifiable list of {@link LogMessage}.
+     */
+    public List<LogMessage> getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the count of rows.
+     *
+     * @return The count of rows.
+     */
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    /**
+     * Get the record which ends the transaction.
+     *
+     * @return The COMMIT or ROLLBACK record, or the DDL record of a DDL transaction.
+     */
+    public LogMessage getEnd() {
+        return end;
+    }
+
+    /**
+     * Get the commit timestamp of the transaction.
+     *
+     * @return The timestamp in seconds of the record which ends the transaction.
+     */
+    public long getCommitTimestamp() {
+        return Long.parseLong(end.getTimestamp());
+    }
+
+    /**
+     * Check whether the transaction is rolled back.
+     *
+     * @return True if the transaction ends with a ROLLBACK record.
+     */
+    public boolean isRollback() {
+        return end.getOpt() == DataMessage.Record.Type.ROLLBACK;
+    }
+
+    @Override
+    public String toString() {
+        return "Transaction{rows=" + rows.size() + ", end=" + end.getOpt() + "}";
+    }
+}
@@ -16,22 +16,116 @@
 
 package com.oceanbase.clogproxy.client.util;
 
+import com.oceanbase.clogproxy.client.enums.TransportType;
+
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.unix.DomainSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Constructor;
 import java.util.concurrent.ThreadFactory;
 
 /** Utils class for netty. */
 public class NettyEventLoopUtil {
 
+    private static final Logger logger = LoggerFactory.getLogger(NettyEventLoopUtil.class);
+
     /** Check whether epoll enabled, and it would not be changed during runtime. */
     private static final boolean EPOLL_ENABLED = Epoll.isAvailable();
 
+    /**
+     * A static class that holds the io_uring transport of netty incubator. The classes are loaded
+     * by reflection on first use, so the transport is optional at both compile time and runtime.
+     */
+    private static class IoUring {
+
+        /** Class name of the io_uring availability checker. */
+        private static final String IO_URING_CLASS = "io.netty.incubator.channel.uring.IOUring";
+
+        /** Class name of the io_uring event loop group. */
+        private static final String GROUP_CLASS =
+                "io.netty.incubator.channel.uring.IOUringEventLoopGroup";
+
+        /** Class name of the io_uring socket channel. */
+        private static final String CHANNEL_CLASS =
+                "io.netty.incubator.channel.uring.IOUringSocketChannel";
+
+        /** Check whether io_uring enabled, and it would not be changed during runtime. */
+        private static final boolean ENABLED;
+
+        /** Constructor of the io_uring event loop group. */
+        private static final Constructor<? extends EventLoopGroup> GROUP_CONSTRUCTOR;
+
+        /** The io_uring socket channel class. */
+        private static final Class<? extends SocketChannel> SOCKET_CHANNEL_CLASS;
+
+        static {
+            boolean enabled = false;
+            Constructor<? extends EventLoopGroup> groupConstructor = null;
+            Class<? extends SocketChannel> socketChannelClass = null;
+            try {
+                ClassLoader classLoader = NettyEventLoopUtil.class.getClassLoader();
+                Class<?> ioUring = Class.forName(IO_URING_CLASS, true, classLoader);
+                if ((Boolean) ioUring.getMethod("isAvailable").invoke(null)) {
+                    groupConstructor =
+                            Class.forName(GROUP_CLASS, true, classLoader)
+                                    .asSubclass(EventLoopGroup.class)
+                                    .getConstructor(int.class, ThreadFactory.class);
+                    socketChannelClass =
+                            Class.forName(CHANNEL_CLASS, true, classLoader)
+                                    .asSubclass(SocketChannel.class);
+                    enabled = true;
+                } else {
+                    Object cause = ioUring.getMethod("unavailabilityCause").invoke(null);
+                    logger.debug("io_uring is not available: {}", cause);
+                }
+            } catch (Throwable t) {
+                logger.debug("io_uring transport is not loaded: {}", t.toString());
+            }
+            ENABLED = enabled;
+            GROUP_CONSTRUCTOR = groupConstructor;
+            SOCKET_CHANNEL_CLASS = socketChannelClass;
+        }
+    }
+
+    /**
+     * Resolve the transport type which is actually used. {@link TransportType#AUTO} prefers epoll
+     * and falls back to NIO, {@link TransportType#IO_URING} falls back to epoll and then NIO, and
+     * {@link TransportType#EPOLL} falls back to NIO.
+     *
+     * @param type The expected transport type.
+     * @return The resolved transport type, which is never {@link TransportType#AUTO}.
+     */
+    public static TransportType resolve(TransportType type) {
+        switch (type) {
+            case IO_URING:
+                if (IoUring.ENABLED) {
+                    return TransportType.IO_URING;
+                }
+                logger.warn("io_uring transport is not available, fallback to epoll or nio");
+                return EPOLL_ENABLED ? TransportType.EPOLL : TransportType.NIO;
+            case EPOLL:
+                if (EPOLL_ENABLED) {
+                    return TransportType.EPOLL;
+                }
+                logger.warn("epoll transport is not available, fallback to nio");
+                return TransportType.NIO;
+            case NIO:
+                return TransportType.NIO;
+            case AUTO:
+            default:
+                return EPOLL_ENABLED ? TransportType.EPOLL : TransportType.NIO;
+        }
+    }
+
     /**
      * Create a new {@link EventLoopGroup} according to current platform and system property,
      * fallback to NIO when epoll not enabled.
@@ -41,9 +135,34 @@ public class NettyEventLoopUtil {
      * @return An {@link EventLoopGroup} instance.
      */
     public static EventLoopGroup newEventLoopGroup(int nThreads, ThreadFactory threadFactory) {
-        return EPOLL_ENABLED
-                ? new EpollEventLoopGroup(nThreads, threadFactory)
-                : new NioEventLoopGroup(nThreads, threadFactory);
+        return newEventLoopGroup(TransportType.AUTO, nThreads, threadFactory);
+    }
+
+    /**
+     * Create a new {@link EventLoopGroup} of specific transport type, the type is resolved by
+     * {@link #resolve(TransportType)} first.
+     *
+     * @param type Transport type.
+     * @param nThreads Number of threads.
+     * @param threadFactory A {@link ThreadFactory} instance.
+     * @return An {@link EventLoopGroup} instance.
+     */
+    public static EventLoopGroup newEventLoopGroup(
+            TransportType type, int nThreads, ThreadFactory threadFactory) {
+        switch (resolve(type)) {
+            case IO_URING:
+                try {
+                    return IoUring.GROUP_CONSTRUCTOR.newInstance(nThreads, threadFactory);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(
+                            "Failed to create io_uring event loop group", e);
+                }
+            case EPOLL:
+                return new EpollEventLoopGroup(nThreads, threadFactory);
+            case NIO:
+            default:
+                return new NioEventLoopGroup(nThreads, threadFactory);
+        }
     }
 
     /**
@@ -55,4 +174,52 @@ public class NettyEventLoopUtil {
     public static Class<? extends SocketChannel> getClientSocketChannelClass() {
         return EPOLL_ENABLED ? EpollSocketChannel.class : NioSocketChannel.class;
     }
+
+    /**
+     * Get the {@link SocketChannel} class that can be registered to specific {@link
+     * EventLoopGroup}.
+     *
+     * @param group An {@link EventLoopGroup} instance.
+     * @return A {@link SocketChannel} implementation class.
+     */
+    public static Class<? extends SocketChannel> getClientSocketChannelClass(EventLoopGroup group) {
+        if (group instanceof EpollEventLoopGroup) {
+            return EpollSocketChannel.class;
+        }
+        if (group instanceof NioEventLoopGroup) {
+            return NioSocketChannel.class;
+        }
+        if (IoUring.ENABLED && IoUring.GROUP_CONSTRUCTOR.getDeclaringClass().isInstance(group)) {
+            return IoUring.SOCKET_CHANNEL_CLASS;
+        }
+        return getClientSocketChannelClass();
+    }
+
+    /**
+     * Get the unix domain socket channel class that can be registered to specific {@link
+     * EventLoopGroup}. Only the epoll transport supports unix domain sockets.
+     *
+     * @param group An {@link EventLoopGroup} instance.
+     * @return A {@link DomainSocketChannel} implementation class.
+     * @throws IllegalStateException If the group does not belong to the epoll transport.
+     */
+    public static Class<? extends DomainSocketChannel> getClientDomainSocketChannelClass(
+            EventLoopGroup group) {
+        if (group instanceof EpollEventLoopGroup) {
+            return EpollDomainSocketChannel.class;
+        }
+        throw new IllegalStateException(
+                "Unix domain socket requires the epoll transport, but the worker group is "
+                        + group.getClass().getName());
+    }
+
+    /**
+     * Check whether a channel class belongs to the epoll transport.
+     *
+     * @param channelClass A channel class.
+     * @return True if it is an epoll channel.
+     */
+    public static boolean isEpoll(Class<?> channelClass) {
+        return EPOLL_ENABLED && EpollSocketChannel.class.isAssignableFrom(channelClass);
+    }
 }
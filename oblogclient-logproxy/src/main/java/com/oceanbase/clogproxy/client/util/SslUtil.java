@@ -0,0 +1,60 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.util;
+
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** The class used to build the {@link SslContext} of LogProxy connections. */
+public class SslUtil {
+
+    private static final Logger logger = LoggerFactory.getLogger(SslUtil.class);
+
+    /**
+     * Get the preferred {@link SslProvider}, which is {@link SslProvider#OPENSSL} if the netty
+     * tcnative library is available, or {@link SslProvider#JDK} otherwise.
+     *
+     * @return A {@link SslProvider}.
+     */
+    public static SslProvider preferredProvider() {
+        if (OpenSsl.isAvailable()) {
+            return SslProvider.OPENSSL;
+        }
+        logger.debug("OpenSSL is not available, cause: {}", OpenSsl.unavailabilityCause());
+        return SslProvider.JDK;
+    }
+
+    /**
+     * Create a {@link SslContextBuilder} for the client with the {@link #preferredProvider()}. The
+     * sessions of the built {@link SslContext} are cached by the host and port of LogProxy, so the
+     * reconnections of a client resume the previous session instead of doing a full handshake as
+     * long as the same context is used.
+     *
+     * @return A {@link SslContextBuilder} instance.
+     */
+    public static SslContextBuilder forClient() {
+        SslProvider provider = preferredProvider();
+        logger.info(
+                "Use SSL provider: {}",
+                provider == SslProvider.OPENSSL ? OpenSsl.versionString() : provider);
+        return SslContextBuilder.forClient().sslProvider(provider);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The class used to create the virtual threads introduced in JDK 21. It's resolved by reflection so
+ * that the client still compiles and runs on JDK 8, where {@link #threadFactory(String,
+ * ThreadFactory)} falls back to the given platform thread factory.
+ */
+public class VirtualThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+    /** The result of Thread.ofVirtual(), or null if virtual threads are not available. */
+    private static final Object BUILDER;
+
+    /** Method Thread.Builder.name(String, long). */
+    private static final Method NAME;
+
+    /** Method Thread.Builder.factory(). */
+    private static final Method FACTORY;
+
+    static {
+        Object builder = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            name = builderClass.getMethod("name", String.class, long.class);
+            factory = builderClass.getMethod("factory");
+        } catch (Throwable t) {
+            // JDK before 21, or JDK 19 and 20 without --enable-preview
+            builder = null;
+        }
+        BUILDER = builder;
+        NAME = name;
+        FACTORY = factory;
+    }
+
+    /**
+     * Check whether virtual threads are available in current JVM.
+     *
+     * @return True if available, false otherwise.
+     */
+    public static boolean isAvailable() {
+        return BUILDER != null;
+    }
+
+    /**
+     * Create a {@link ThreadFactory} of virtual threads, the threads will be named as the prefix
+     * followed by a sequence number.
+     *
+     * @param prefix Name prefix of the threads.
+     * @param fallback The factory to use if virtual threads are not available.
+     * @return A virtual thread factory if available, or the fallback otherwise.
+     */
+    public static ThreadFactory threadFactory(String prefix, ThreadFactory fallback) {
+        if (isAvailable()) {
+            try {
+                synchronized (BUILDER) {
+                    return (ThreadFactory) FACTORY.invoke(NAME.invoke(BUILDER, prefix + "-", 1L));
+                }
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Failed to create virtual thread factory, use platform threads", e);
+                return fallback;
+            }
+        }
+        logger.warn(
+                "Virtual threads are not available on Java {}, use platform threads",
+                System.getProperty("java.version"));
+        return fallback;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.codec;
+
+import com.oceanbase.clogproxy.client.enums.Lz4Implementation;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import net.jpountz.lz4.LZ4Factory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Lz4CodecTest {
+
+    @Test
+    public void testImplementation() throws Exception {
+        for (Lz4Implementation implementation :
+                new Lz4Implementation[] {
+                    Lz4Implementation.JAVA_UNSAFE, Lz4Implementation.JAVA_SAFE
+                }) {
+            Lz4Codec codec = Lz4Codec.of(implementation);
+            Assert.assertEquals(implementation, codec.implementation());
+            ByteBuf raw = Unpooled.buffer().writeZero(1024).writeBytes(new byte[] {1, 2, 3});
+            ByteBuf compressed = codec.compress(raw.duplicate(), ByteBufAllocator.DEFAULT);
+            ByteBuf decompressed = Unpooled.buffer(raw.readableBytes());
+            codec.decompress(compressed, decompressed, raw.readableBytes());
+            decompressed.writerIndex(raw.readableBytes());
+            Assert.assertEquals(raw, decompressed);
+            compressed.release();
+        }
+        // the result is shared by the instances of the same implementation
+        double throughput = Lz4Codec.of(Lz4Implementation.JAVA_UNSAFE).selfCheck();
+        Assert.assertTrue(throughput > 0);
+        Assert.assertEquals(throughput, new Lz4Codec(LZ4Factory.unsafeInstance()).selfCheck(), 0);
+    }
+}
@@ -16,6 +16,12 @@
 
 package com.oceanbase.clogproxy.client.config;
 
+import com.oceanbase.clogproxy.client.enums.ByteBufAllocatorType;
+import com.oceanbase.clogproxy.client.enums.Lz4Implementation;
+import com.oceanbase.clogproxy.client.enums.RecvBufAllocatorType;
+import com.oceanbase.clogproxy.client.enums.TransferQueueType;
+import com.oceanbase.clogproxy.client.enums.TransportType;
+
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.junit.Assert;
 import org.junit.Test;
@@ -41,6 +47,35 @@ public class ClientConfTest {
         Assert.assertNotNull(clientConf.getClientId());
         Assert.assertFalse(clientConf.isIgnoreUnknownRecordType());
         Assert.assertNull(clientConf.getSslContext());
+        Assert.assertFalse(clientConf.isPooledDecompressBuffer());
+        Assert.assertEquals(clientConf.getWorkerThreads(), 1);
+        Assert.assertFalse(clientConf.isDedicatedWorkerGroup());
+        Assert.assertNull(clientConf.getWorkerGroup());
+        Assert.assertEquals(clientConf.getTransferQueueHighWatermark(), 20000);
+        Assert.assertEquals(clientConf.getTransferQueueLowWatermark(), 10000);
+        Assert.assertEquals(clientConf.getDecodeThreads(), 0);
+        Assert.assertNull(clientConf.getDecodeExecutor());
+        Assert.assertFalse(clientConf.isParallelDecode());
+        Assert.assertEquals(clientConf.getReceiveBufferSize(), 0);
+        Assert.assertEquals(clientConf.getRecvBufAllocatorType(), RecvBufAllocatorType.DEFAULT);
+        Assert.assertEquals(clientConf.getByteBufAllocatorType(), ByteBufAllocatorType.DEFAULT);
+        Assert.assertFalse(clientConf.isTcpQuickAck());
+        Assert.assertEquals(clientConf.getTcpUserTimeoutMs(), 0);
+        Assert.assertEquals(clientConf.getTransportType(), TransportType.AUTO);
+        Assert.assertNull(clientConf.getCompressType());
+        Assert.assertEquals(clientConf.getLz4Implementation(), Lz4Implementation.FASTEST);
+        Assert.assertFalse(clientConf.isLz4SelfCheck());
+        Assert.assertFalse(clientConf.isDeferredDecode());
+        Assert.assertEquals(64L * 1024 * 1024, clientConf.getDeferredDecodeMaxBytes());
+        Assert.assertTrue(clientConf.isSslSessionCache());
+        Assert.assertEquals(clientConf.getMaxIdleTimeoutS(), 60);
+        Assert.assertEquals(clientConf.getConnectAttemptDelayMs(), 250);
+        Assert.assertEquals(clientConf.getTransferQueueType(), TransferQueueType.SPSC_RING);
+        Assert.assertEquals(clientConf.getBatchMaxRecords(), 1024);
+        Assert.assertEquals(clientConf.getBatchMaxBytes(), 0);
+        Assert.assertEquals(clientConf.getBatchLingerMs(), 0);
+        Assert.assertEquals(clientConf.getDispatchLanes(), 0);
+        Assert.assertFalse(clientConf.isVirtualThreads());
     }
 
     @Test
@@ -0,0 +1,475 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.config.ClientConf;
+import com.oceanbase.clogproxy.client.enums.Lz4Implementation;
+import com.oceanbase.clogproxy.client.util.SslUtil;
+import com.oceanbase.clogproxy.common.packet.CompressType;
+import com.oceanbase.clogproxy.common.packet.HeaderType;
+import com.oceanbase.clogproxy.common.packet.ProtocolVersion;
+import com.oceanbase.oms.logmessage.DataMessage;
+import com.oceanbase.oms.logmessage.LogMessage;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.handler.ssl.OpenSslSessionContext;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.oceanbase.clogproxy.client.connection.MockLogProxy.PACKETS;
+import static com.oceanbase.clogproxy.client.connection.MockLogProxy.RECORDS_PER_PACKET;
+
+public class ClientHandlerTest {
+
+    private StreamContext context;
+
+    private EmbeddedChannel channel;
+
+    private void open(ClientConf clientConf) throws Exception {
+        open(clientConf, ProtocolVersion.V2);
+    }
+
+    private void open(ClientConf clientConf, ProtocolVersion version) throws Exception {
+        ConnectionParams params = MockLogProxy.params("127.0.0.1", 2983);
+        params.setProtocolVersion(version);
+        context = MockLogProxy.context(clientConf, params);
+        channel = new EmbeddedChannel(false, false);
+        channel.attr(ConnectionFactory.CONTEXT_KEY).set(context);
+        channel.pipeline().addLast(new ClientHandler());
+        channel.register();
+    }
+
+    private Channel connect(EventLoopGroup group, LocalAddress address, ClientConf clientConf)
+            throws Exception {
+        ConnectionParams params = MockLogProxy.params("127.0.0.1", 2983);
+        StreamContext streamContext = MockLogProxy.context(clientConf, params);
+        return new Bootstrap()
+                .group(group)
+                .channel(LocalChannel.class)
+                .attr(ConnectionFactory.CONTEXT_KEY, streamContext)
+                .handler(
+                        new ChannelInitializer<Channel>() {
+                            @Override
+                            protected void initChannel(Channel ch) {
+                                if (clientConf.getSslContext() != null) {
+                                    ch.pipeline()
+                                            .addLast(
+                                                    ConnectionFactory.newSslHandler(
+                                                            clientConf,
+                                                            params.getEndpoints().get(0),
+                                                            ch.alloc()));
+                                }
+                                ch.pipeline().addLast(new ClientHandler());
+                            }
+                        })
+                .connect(address)
+                .sync()
+                .channel();
+    }
+
+    private void writeInbound(CompressType compressType, int chunkSize) {
+        writeInbound(compressType, chunkSize, ProtocolVersion.V2);
+    }
+
+    private void writeInbound(CompressType compressType, int chunkSize, ProtocolVersion version) {
+        for (int p = 0; p < PACKETS; p++) {
+            RecordBlockBuilder builder = new RecordBlockBuilder();
+            for (int i = 0; i < RECORDS_PER_PACKET; i++) {
+                long timestamp = 1000L + p * RECORDS_PER_PACKET + i;
+                builder.add(
+                        DataMessage.Record.Type.INSERT.value(),
+                        "db",
+                        "tbl_" + p,
+                        timestamp,
+                        new String[] {"id", "name"},
+                        new String[] {String.valueOf(timestamp), "name_" + timestamp});
+            }
+            ByteBuf packet;
+            if (version == ProtocolVersion.V0) {
+                packet = builder.packetV0(compressType);
+            } else if (version == ProtocolVersion.V1) {
+                packet = builder.packetV1(compressType);
+            } else {
+                packet = builder.packet(compressType);
+            }
+            while (packet.isReadable()) {
+                channel.writeInbound(
+                        packet.readRetainedSlice(Math.min(chunkSize, packet.readableBytes())));
+            }
+            packet.release();
+        }
+    }
+
+    private void assertRecords(boolean pooled) {
+        Assert.assertEquals(PACKETS * RECORDS_PER_PACKET, context.recordQueue().size());
+        for (int p = 0; p < PACKETS; p++) {
+            for (int i = 0; i < RECORDS_PER_PACKET; i++) {
+                long timestamp = 1000L + p * RECORDS_PER_PACKET + i;
+                StreamContext.TransferPacket packet = context.recordQueue().poll();
+                Assert.assertNotNull(packet);
+                LogMessage message = packet.getRecord();
+                Assert.assertEquals(String.valueOf(timestamp), message.getSafeTimestamp());
+                Assert.assertEquals("db", message.getDbName());
+                Assert.assertEquals("tbl_" + p, message.getTableName());
+                List<DataMessage.Record.Field> fields = message.getFieldList();
+                Assert.assertEquals(2, fields.size());
+                Assert.assertEquals("name", fields.get(1).getFieldname());
+                Assert.assertEquals(
+                        "name_" + timestamp, fields.get(1).getValue().toString("utf8mb4"));
+                if (pooled) {
+                    packet.release();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testParseRecords() throws Exception {
+        for (CompressType compressType : CompressType.values()) {
+            for (int chunkSize : new int[] {7, 1500, Integer.MAX_VALUE}) {
+                for (boolean pooled : new boolean[] {false, true}) {
+                    for (EventExecutorGroup decodeExecutor :
+                            new EventExecutorGroup[] {null, ImmediateEventExecutor.INSTANCE}) {
+                        open(
+                                ClientConf.builder()
+                                        .pooledDecompressBuffer(pooled)
+                                        .decodeExecutor(decodeExecutor)
+                                        .build());
+                        writeInbound(compressType, chunkSize);
+                        channel.runPendingTasks();
+                        assertRecords(pooled);
+                        channel.finishAndReleaseAll();
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testParseRecordsV01() throws Exception {
+        for (ProtocolVersion version :
+                new ProtocolVersion[] {ProtocolVersion.V0, ProtocolVersion.V1}) {
+            for (CompressType compressType : CompressType.values()) {
+                for (int chunkSize : new int[] {7, Integer.MAX_VALUE}) {
+                    for (boolean pooled : new boolean[] {false, true}) {
+                        open(ClientConf.builder().pooledDecompressBuffer(pooled).build(), version);
+                        ByteBuf response = Unpooled.buffer();
+                        response.writeShort(version.code());
+                        response.writeInt(HeaderType.HANDSHAKE_RESPONSE_CLIENT.code());
+                        response.writeInt(0);
+                        response.writeByte(9).writeBytes("127.0.0.1".getBytes());
+                        response.writeByte(5).writeBytes("1.1.0".getBytes());
+                        channel.writeInbound(response);
+                        writeInbound(compressType, chunkSize, version);
+                        assertRecords(pooled);
+                        channel.finishAndReleaseAll();
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDeferredDecode() throws Exception {
+        for (CompressType compressType : CompressType.values()) {
+            for (boolean pooled : new boolean[] {false, true}) {
+                open(
+                        ClientConf.builder()
+                                .pooledDecompressBuffer(pooled)
+                                .deferredDecode(true)
+                                .build());
+                writeInbound(compressType, 1500);
+                Assert.assertEquals(PACKETS, context.recordQueue().size());
+                List<StreamContext.TransferPacket> packets = new ArrayList<>();
+                context.recordQueue().drainTo(packets);
+                for (StreamContext.TransferPacket packet : packets) {
+                    Assert.assertNull(packet.getRecord());
+                    packet.getRecordData().decode(context.recordQueue()::add);
+                    if (pooled) {
+                        packet.release();
+                    }
+                }
+                assertRecords(pooled);
+                channel.finishAndReleaseAll();
+            }
+        }
+    }
+
+    @Test
+    public void testDeferredBackpressure() throws Exception {
+        open(ClientConf.builder().deferredDecode(true).deferredDecodeMaxBytes(1).build());
+        writeInbound(CompressType.LZ4, Integer.MAX_VALUE);
+        // the packets are far below the packet watermark, but one of them exceeds the byte bound
+        Assert.assertEquals(1, context.recordQueue().size());
+        Assert.assertFalse(channel.config().isAutoRead());
+
+        for (int i = 0; i < PACKETS; i++) {
+            StreamContext.TransferPacket packet = context.recordQueue().poll();
+            Assert.assertNotNull(packet);
+            Assert.assertEquals(packet.queuedBytes(), context.queuedBytes());
+            context.addQueuedBytes(-packet.queuedBytes());
+            context.recordSink().signal();
+            channel.runPendingTasks();
+        }
+        Assert.assertTrue(context.recordQueue().isEmpty());
+        Assert.assertEquals(0, context.queuedBytes());
+        Assert.assertTrue(channel.config().isAutoRead());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testLz4Implementation() throws Exception {
+        for (Lz4Implementation implementation :
+                new Lz4Implementation[] {
+                    Lz4Implementation.JAVA_UNSAFE, Lz4Implementation.JAVA_SAFE
+                }) {
+            open(ClientConf.builder().lz4Implementation(implementation).build());
+            writeInbound(CompressType.LZ4, 1500);
+            assertRecords(false);
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        open(ClientConf.builder().transferQueueSize(50).build());
+        writeInbound(CompressType.LZ4, Integer.MAX_VALUE);
+        Assert.assertEquals(50, context.recordQueue().size());
+        Assert.assertFalse(channel.config().isAutoRead());
+
+        for (int i = 0; i < PACKETS * RECORDS_PER_PACKET; i++) {
+            StreamContext.TransferPacket packet = context.recordQueue().poll();
+            Assert.assertNotNull(packet);
+            Assert.assertEquals(String.valueOf(1000L + i), packet.getRecord().getSafeTimestamp());
+            context.recordSink().signal();
+            channel.runPendingTasks();
+        }
+        Assert.assertTrue(context.recordQueue().isEmpty());
+        Assert.assertTrue(channel.config().isAutoRead());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testClosedChannel() throws Exception {
+        open(
+                ClientConf.builder()
+                        .pooledDecompressBuffer(true)
+                        .decodeExecutor(ImmediateEventExecutor.INSTANCE)
+                        .build());
+        RecordBlockBuilder builder = new RecordBlockBuilder();
+        for (int i = 0; i < RECORDS_PER_PACKET; i++) {
+            builder.add(
+                    DataMessage.Record.Type.INSERT.value(),
+                    "db",
+                    "tbl",
+                    1000L + i,
+                    new String[] {"id"},
+                    new String[] {String.valueOf(i)});
+        }
+        // the packet is decoded at once, and the records wait in a task of the event loop
+        channel.pipeline().fireChannelRead(builder.packet(CompressType.LZ4));
+        Assert.assertTrue(context.recordQueue().isEmpty());
+
+        // the channel is closed before the task runs, as the close of a reconnection does
+        channel.unsafe().close(channel.voidPromise());
+        channel.runPendingTasks();
+        Assert.assertTrue(context.recordQueue().isEmpty());
+        Assert.assertTrue(context.recordSink().isPaused());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testParallelDecode() throws Exception {
+        int packets = 20;
+        LocalAddress address = new LocalAddress("testParallelDecode");
+        EventLoopGroup group = new DefaultEventLoopGroup(2);
+        EventExecutorGroup decodeGroup = new DefaultEventExecutorGroup(4);
+        try {
+            new ServerBootstrap()
+                    .group(group)
+                    .channel(LocalServerChannel.class)
+                    .childHandler(
+                            new ChannelInboundHandlerAdapter() {
+                                @Override
+                                public void channelActive(ChannelHandlerContext ctx) {
+                                    for (int p = 0; p < packets; p++) {
+                                        RecordBlockBuilder builder = new RecordBlockBuilder();
+                                        for (int i = 0; i < RECORDS_PER_PACKET; i++) {
+                                            long timestamp = p * RECORDS_PER_PACKET + i + 1;
+                                            builder.add(
+                                                    DataMessage.Record.Type.INSERT.value(),
+                                                    "db",
+                                                    "tbl",
+                                                    timestamp,
+                                                    new String[] {"id"},
+                                                    new String[] {String.valueOf(timestamp)});
+                                        }
+                                        ctx.write(builder.packet(CompressType.LZ4));
+                                    }
+                                    ctx.flush();
+                                }
+                            })
+                    .bind(address)
+                    .sync();
+
+            Channel client =
+                    connect(
+                            group,
+                            address,
+                            ClientConf.builder()
+                                    .transferQueueSize(64)
+                                    .decodeExecutor(decodeGroup)
+                                    .parallelDecode(true)
+                                    .build());
+            StreamContext streamContext = client.attr(ConnectionFactory.CONTEXT_KEY).get();
+
+            for (int i = 0; i < packets * RECORDS_PER_PACKET; i++) {
+                StreamContext.TransferPacket packet =
+                        streamContext.recordQueue().poll(10, TimeUnit.SECONDS);
+                Assert.assertNotNull(packet);
+                Assert.assertEquals(String.valueOf(i + 1), packet.getRecord().getSafeTimestamp());
+                streamContext.recordSink().signal();
+            }
+            client.close().sync();
+        } finally {
+            decodeGroup.shutdownGracefully();
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testCompressTypeHandshake() throws Exception {
+        LocalAddress address = new LocalAddress("testCompressTypeHandshake");
+        EventLoopGroup group = new DefaultEventLoopGroup(2);
+        try {
+            new ServerBootstrap()
+                    .group(group)
+                    .channel(LocalServerChannel.class)
+                    .childHandler(new MockLogProxy.RecordsHandler())
+                    .bind(address)
+                    .sync();
+
+            ConnectionParams params = MockLogProxy.params("127.0.0.1", 2983);
+            for (CompressType compressType : new CompressType[] {null, CompressType.LZ4}) {
+                Assert.assertEquals(
+                        params.getConfigurationString(),
+                        ClientHandler.configurationString(
+                                params, ClientConf.builder().compressType(compressType).build()));
+            }
+            for (CompressType compressType : CompressType.values()) {
+                Channel client =
+                        connect(
+                                group,
+                                address,
+                                ClientConf.builder().compressType(compressType).build());
+                StreamContext streamContext = client.attr(ConnectionFactory.CONTEXT_KEY).get();
+                for (int i = 0; i < PACKETS * RECORDS_PER_PACKET; i++) {
+                    StreamContext.TransferPacket packet =
+                            streamContext.recordQueue().poll(10, TimeUnit.SECONDS);
+                    Assert.assertNotNull(packet);
+                    Assert.assertEquals(compressType.name(), packet.getRecord().getTableName());
+                    Assert.assertEquals(
+                            String.valueOf(i + 1), packet.getRecord().getSafeTimestamp());
+                }
+                client.close().sync();
+            }
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testSslHandshake() throws Exception {
+        LocalAddress address = new LocalAddress("testSslHandshake");
+        EventLoopGroup group = new DefaultEventLoopGroup(2);
+        ClassLoader classLoader = getClass().getClassLoader();
+        SslContext serverContext =
+                SslContextBuilder.forServer(
+                                classLoader.getResourceAsStream("ssl/server.crt"),
+                                classLoader.getResourceAsStream("ssl/server.key"))
+                        .sslProvider(SslUtil.preferredProvider())
+                        .build();
+        SslContext clientContext =
+                SslUtil.forClient()
+                        .trustManager(classLoader.getResourceAsStream("ssl/server.crt"))
+                        .build();
+        try {
+            new ServerBootstrap()
+                    .group(group)
+                    .channel(LocalServerChannel.class)
+                    .childHandler(
+                            new ChannelInitializer<Channel>() {
+                                @Override
+                                protected void initChannel(Channel ch) {
+                                    ch.pipeline()
+                                            .addLast(serverContext.newHandler(ch.alloc()))
+                                            .addLast(new MockLogProxy.RecordsHandler());
+                                }
+                            })
+                    .bind(address)
+                    .sync();
+
+            // a reconnection of the stream uses the same context and resumes the session
+            for (int i = 0; i < 2; i++) {
+                Channel client =
+                        connect(
+                                group,
+                                address,
+                                ClientConf.builder().sslContext(clientContext).build());
+                StreamContext streamContext = client.attr(ConnectionFactory.CONTEXT_KEY).get();
+                for (int j = 0; j < PACKETS * RECORDS_PER_PACKET; j++) {
+                    Assert.assertNotNull(streamContext.recordQueue().poll(10, TimeUnit.SECONDS));
+                }
+                Assert.assertTrue(streamContext.sslHandshakeNanos() > 0);
+                Assert.assertEquals(
+                        "127.0.0.1",
+                        client.pipeline().get(SslHandler.class).engine().getPeerHost());
+                client.close().sync();
+            }
+            if (clientContext.sessionContext() instanceof OpenSslSessionContext) {
+                Assert.assertTrue(
+                        ((OpenSslSessionContext) clientContext.sessionContext())
+                                .isSessionCacheEnabled());
+            }
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.config.ClientConf;
+import com.oceanbase.clogproxy.client.exception.LogProxyClientException;
+import com.oceanbase.clogproxy.client.listener.BatchRecordListener;
+import com.oceanbase.clogproxy.client.listener.RecordListener;
+import com.oceanbase.clogproxy.client.listener.Transaction;
+import com.oceanbase.clogproxy.client.listener.TransactionListener;
+import com.oceanbase.oms.logmessage.LogMessage;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.oceanbase.clogproxy.client.connection.MockLogProxy.PACKETS;
+import static com.oceanbase.clogproxy.client.connection.MockLogProxy.RECORDS_PER_PACKET;
+
+public class ClientStreamTest {
+
+    @Test
+    public void testBatchRecordListener() throws Exception {
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            Channel server = MockLogProxy.bind(group, new MockLogProxy.RecordsHandler());
+            int port = MockLogProxy.port(server);
+
+            ClientConf clientConf =
+                    ClientConf.builder().batchMaxRecords(7).batchLingerMs(10).build();
+            ConnectionParams params = MockLogProxy.params("127.0.0.1", port);
+            ClientStream stream = new ClientStream(clientConf, params);
+            BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+            stream.addListener(
+                    new BatchRecordListener() {
+                        @Override
+                        public void notifyBatch(List<LogMessage> logMessages) {
+                            List<String> timestamps = new ArrayList<>();
+                            logMessages.forEach(m -> timestamps.add(m.getSafeTimestamp()));
+                            batches.add(timestamps);
+                        }
+
+                        @Override
+                        public void onException(LogProxyClientException e) {}
+                    });
+            stream.start();
+            try {
+                int received = 0;
+                while (received < PACKETS * RECORDS_PER_PACKET) {
+                    List<String> batch = batches.poll(10, TimeUnit.SECONDS);
+                    Assert.assertNotNull(batch);
+                    Assert.assertTrue(batch.size() >= 1 && batch.size() <= 7);
+                    for (String timestamp : batch) {
+                        Assert.assertEquals(String.valueOf(++received), timestamp);
+                    }
+                }
+            } finally {
+                stream.stop();
+                server.close().sync();
+            }
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testTransactionReconnect() throws Exception {
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            MockLogProxy.TransactionHandler handler = new MockLogProxy.TransactionHandler();
+            Channel server = MockLogProxy.bind(group, handler);
+            int port = MockLogProxy.port(server);
+
+            ClientConf clientConf = ClientConf.builder().build();
+            ConnectionParams params = MockLogProxy.params("127.0.0.1", port);
+            ClientStream stream = new ClientStream(clientConf, params);
+            CountDownLatch openTransaction = new CountDownLatch(1);
+            stream.addListener(
+                    new RecordListener() {
+                        @Override
+                        public void notify(LogMessage logMessage) {
+                            if ("1005".equals(logMessage.getSafeTimestamp())) {
+                                openTransaction.countDown();
+                            }
+                        }
+
+                        @Override
+                        public void onException(LogProxyClientException e) {}
+                    });
+            BlockingQueue<String> transactions = new LinkedBlockingQueue<>();
+            stream.addTransactionListener(
+                    new TransactionListener() {
+                        @Override
+                        public void notify(Transaction transaction) {
+                            List<String> rows = new ArrayList<>();
+                            transaction.getRows().forEach(m -> rows.add(m.getSafeTimestamp()));
+                            transactions.add(rows + "@" + transaction.getCommitTimestamp());
+                        }
+
+                        @Override
+                        public void onException(LogProxyClientException e) {}
+                    });
+            stream.start();
+            try {
+                Assert.assertEquals("[1002]@1003", transactions.poll(10, TimeUnit.SECONDS));
+                // break the connection when the second transaction is open
+                Assert.assertTrue(openTransaction.await(10, TimeUnit.SECONDS));
+                handler.channels.take().close();
+
+                // the open transaction is received again from its BEGIN
+                Assert.assertEquals("[1005]@1006", transactions.poll(10, TimeUnit.SECONDS));
+                Assert.assertEquals(2, handler.configurations.size());
+                Assert.assertTrue(
+                        handler.configurations.get(1).contains("first_start_timestamp=1003 "));
+            } finally {
+                stream.stop();
+                server.close().sync();
+            }
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testReconnectInFlight() throws Exception {
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        EventLoopGroup workerGroup = new NioEventLoopGroup(1);
+        EventExecutorGroup decodeGroup = new DefaultEventExecutorGroup(1);
+        SingleThreadEventExecutor worker = (SingleThreadEventExecutor) workerGroup.next();
+        SingleThreadEventExecutor decoder = (SingleThreadEventExecutor) decodeGroup.next();
+        CountDownLatch decoderBlocked = new CountDownLatch(1);
+        CountDownLatch workerBlocked = new CountDownLatch(1);
+        try {
+            MockLogProxy.TransactionHandler handler = new MockLogProxy.TransactionHandler();
+            Channel server = MockLogProxy.bind(group, handler);
+            ClientConf clientConf =
+                    ClientConf.builder()
+                            .readWaitTimeMs(100)
+                            .workerGroup(workerGroup)
+                            .decodeExecutor(decodeGroup)
+                            .build();
+            ClientStream stream =
+                    new ClientStream(
+                            clientConf,
+                            MockLogProxy.params("127.0.0.1", MockLogProxy.port(server)));
+            BlockingQueue<String> records = new LinkedBlockingQueue<>();
+            stream.addListener(
+                    new RecordListener() {
+                        @Override
+                        public void notify(LogMessage logMessage) {
+                            records.add(logMessage.getSafeTimestamp());
+                        }
+
+                        @Override
+                        public void onException(LogProxyClientException e) {}
+                    });
+            BlockingQueue<String> transactions = new LinkedBlockingQueue<>();
+            stream.addTransactionListener(
+                    new TransactionListener() {
+                        @Override
+                        public void notify(Transaction transaction) {
+                            transactions.add(String.valueOf(transaction.getCommitTimestamp()));
+                        }
+
+                        @Override
+                        public void onException(LogProxyClientException e) {}
+                    });
+
+            block(decoder, decoderBlocked);
+            stream.start();
+            try {
+                // the packet of the first connection is read, and waits to be decoded
+                awaitPendingTasks(decoder, 1);
+                block(worker, workerBlocked);
+                int pending = worker.pendingTasks();
+                // the flag of the first connection may be not cleared yet, trigger until the close
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (worker.pendingTasks() == pending) {
+                    Assert.assertTrue(System.nanoTime() < deadline);
+                    stream.triggerReconnect();
+                    Thread.sleep(1);
+                }
+
+                // the decoded records of the first connection are queued after the close of it
+                decoderBlocked.countDown();
+                awaitPendingTasks(worker, pending + 2);
+                workerBlocked.countDown();
+
+                // only the records of the second connection are delivered
+                for (String timestamp : new String[] {"1004", "1005", "1006"}) {
+                    Assert.assertEquals(timestamp, records.poll(10, TimeUnit.SECONDS));
+                }
+                Assert.assertEquals("1006", transactions.poll(10, TimeUnit.SECONDS));
+                Assert.assertNull(records.poll(500, TimeUnit.MILLISECONDS));
+                Assert.assertTrue(transactions.isEmpty());
+                Assert.assertEquals(2, handler.configurations.size());
+            } finally {
+                decoderBlocked.countDown();
+                workerBlocked.countDown();
+                stream.stop();
+                server.close().sync();
+            }
+        } finally {
+            decodeGroup.shutdownGracefully();
+            workerGroup.shutdownGracefully();
+            group.shutdownGracefully();
+        }
+    }
+
+    private static void block(SingleThreadEventExecutor executor, CountDownLatch latch)
+            throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(
+                () -> {
+                    started.countDown();
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        started.await();
+    }
+
+    private static void awaitPendingTasks(SingleThreadEventExecutor executor, int count)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (executor.pendingTasks() < count) {
+            Assert.assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConnectRaceTest {
+
+    @Test
+    public void testThrowingAttempt() throws Exception {
+        EventLoopGroup group = new DefaultEventLoopGroup(1);
+        try {
+            // a scheduled attempt which throws counts as failed instead of hanging the race
+            ChannelPromise pending = new EmbeddedChannel().newPromise();
+            ConnectRace race =
+                    new ConnectRace(
+                            2,
+                            i -> {
+                                if (i == 0) {
+                                    return pending;
+                                }
+                                throw new IllegalStateException("mock failure");
+                            },
+                            10,
+                            group.next());
+            Future<Channel> future = race.start();
+            Assert.assertFalse(future.await(200));
+            pending.setFailure(new IllegalStateException("mock timeout"));
+            Assert.assertTrue(future.await(10000));
+            Assert.assertFalse(future.isSuccess());
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.config.ClientConf;
+import com.oceanbase.clogproxy.client.enums.ByteBufAllocatorType;
+import com.oceanbase.clogproxy.client.enums.RecvBufAllocatorType;
+import com.oceanbase.clogproxy.client.enums.TransportType;
+import com.oceanbase.clogproxy.client.util.NettyEventLoopUtil;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.AdaptiveRecvByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannelConfig;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannelConfig;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static com.oceanbase.clogproxy.client.connection.MockLogProxy.PACKETS;
+import static com.oceanbase.clogproxy.client.connection.MockLogProxy.RECORDS_PER_PACKET;
+
+public class ConnectionFactoryTest {
+
+    @Test
+    public void testDomainSocket() throws Exception {
+        Assume.assumeTrue(Epoll.isAvailable());
+        File file = File.createTempFile("logproxy", ".sock");
+        Assert.assertTrue(file.delete());
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+        try {
+            new ServerBootstrap()
+                    .group(group)
+                    .channel(EpollServerDomainSocketChannel.class)
+                    .childHandler(new MockLogProxy.RecordsHandler())
+                    .bind(new DomainSocketAddress(file))
+                    .sync();
+
+            ClientConf clientConf = ClientConf.builder().build();
+            ConnectionParams params =
+                    MockLogProxy.params(
+                            ConnectionParams.DOMAIN_SOCKET_SCHEME + file.getAbsolutePath(), 2983);
+            StreamContext streamContext = MockLogProxy.context(clientConf, params);
+            Connection connection = ConnectionFactory.instance().createConnection(streamContext);
+            for (int i = 0; i < PACKETS * RECORDS_PER_PACKET; i++) {
+                StreamContext.TransferPacket packet =
+                        streamContext.recordQueue().poll(10, TimeUnit.SECONDS);
+                Assert.assertNotNull(packet);
+                Assert.assertEquals(String.valueOf(i + 1), packet.getRecord().getSafeTimestamp());
+            }
+            connection.close();
+        } finally {
+            group.shutdownGracefully();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSocketOptions() throws Exception {
+        ClientConf clientConf =
+                ClientConf.builder()
+                        .transportType(TransportType.NIO)
+                        .receiveBufferSize(256 * 1024)
+                        .recvBufAllocatorType(RecvBufAllocatorType.FIXED)
+                        .recvBufMaxSize(32 * 1024)
+                        .byteBufAllocatorType(ByteBufAllocatorType.UNPOOLED_HEAP)
+                        .build();
+        Channel channel = register(clientConf);
+        try {
+            SocketChannelConfig config = (SocketChannelConfig) channel.config();
+            // the kernel may double the requested size
+            Assert.assertTrue(config.getReceiveBufferSize() >= 256 * 1024);
+            Assert.assertTrue(
+                    config.getRecvByteBufAllocator() instanceof FixedRecvByteBufAllocator);
+            ByteBufAllocator allocator = config.getAllocator();
+            Assert.assertNotSame(ByteBufAllocator.DEFAULT, allocator);
+            Assert.assertFalse(allocator.isDirectBufferPooled());
+            ByteBuf buffer = allocator.buffer();
+            Assert.assertFalse(buffer.isDirect());
+            buffer.release();
+        } finally {
+            close(channel);
+        }
+
+        clientConf = ClientConf.builder().transportType(TransportType.NIO).build();
+        channel = register(clientConf);
+        try {
+            Assert.assertSame(ByteBufAllocator.DEFAULT, channel.config().getAllocator());
+            Assert.assertTrue(
+                    channel.config().getRecvByteBufAllocator()
+                            instanceof AdaptiveRecvByteBufAllocator);
+        } finally {
+            close(channel);
+        }
+    }
+
+    @Test
+    public void testTransportType() throws Exception {
+        ClientConf clientConf = ClientConf.builder().transportType(TransportType.NIO).build();
+        Channel channel = register(clientConf);
+        try {
+            Assert.assertTrue(channel.eventLoop().parent() instanceof NioEventLoopGroup);
+            Assert.assertTrue(channel instanceof NioSocketChannel);
+        } finally {
+            close(channel);
+        }
+
+        // io_uring is not on the test classpath
+        Assert.assertEquals(
+                Epoll.isAvailable() ? TransportType.EPOLL : TransportType.NIO,
+                NettyEventLoopUtil.resolve(TransportType.IO_URING));
+
+        Assume.assumeTrue(Epoll.isAvailable());
+        clientConf =
+                ClientConf.builder()
+                        .transportType(TransportType.EPOLL)
+                        .tcpQuickAck(true)
+                        .tcpUserTimeoutMs(5000)
+                        .build();
+        channel = register(clientConf);
+        try {
+            Assert.assertTrue(channel.eventLoop().parent() instanceof EpollEventLoopGroup);
+            Assert.assertTrue(channel instanceof EpollSocketChannel);
+            EpollSocketChannelConfig config = (EpollSocketChannelConfig) channel.config();
+            Assert.assertTrue(config.isTcpQuickAck());
+            Assert.assertEquals(5000, config.getTcpUserTimeout());
+        } finally {
+            close(channel);
+        }
+    }
+
+    /**
+     * Register a channel created by the bootstrap of the connection factory without connecting it.
+     * The channel is registered to a dedicated worker group of the transport type in the config.
+     *
+     * @param clientConf Client config.
+     * @return The registered channel.
+     */
+    private static Channel register(ClientConf clientConf) throws Exception {
+        ConnectionParams params = MockLogProxy.params("127.0.0.1", 2983);
+        StreamContext streamContext = MockLogProxy.context(clientConf, params);
+        EventLoopGroup group =
+                ConnectionFactory.instance()
+                        .acquireWorkerGroup(
+                                ClientConf.builder()
+                                        .transportType(clientConf.getTransportType())
+                                        .dedicatedWorkerGroup(true)
+                                        .build(),
+                                params);
+        return ConnectionFactory.instance()
+                .initBootstrap(streamContext, params.getEndpoints().get(0), group)
+                .register()
+                .sync()
+                .channel();
+    }
+
+    /**
+     * Close a channel returned by {@link #register(ClientConf)} and its dedicated worker group.
+     *
+     * @param channel The registered channel.
+     */
+    private static void close(Channel channel) {
+        channel.close().syncUninterruptibly();
+        channel.eventLoop().parent().shutdownGracefully();
+    }
+
+    @Test
+    public void testConnectRace() throws Exception {
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            // a port without listener, the connection to it is refused
+            Channel closed = MockLogProxy.bind(group, new ChannelInboundHandlerAdapter());
+            int deadPort = MockLogProxy.port(closed);
+            closed.close().sync();
+            Channel server = MockLogProxy.bind(group, new MockLogProxy.RecordsHandler());
+            int livePort = MockLogProxy.port(server);
+
+            // a long delay, so the live endpoint is only reached by failing fast
+            ClientConf clientConf = ClientConf.builder().connectAttemptDelayMs(60000).build();
+            ConnectionParams params =
+                    MockLogProxy.params("127.0.0.1:" + deadPort + ",127.0.0.1:" + livePort, 2983);
+            StreamContext streamContext = MockLogProxy.context(clientConf, params);
+            long start = System.nanoTime();
+            Connection connection = ConnectionFactory.instance().createConnection(streamContext);
+            Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+            Assert.assertEquals(0, streamContext.nextEndpoint());
+            for (int i = 0; i < PACKETS * RECORDS_PER_PACKET; i++) {
+                StreamContext.TransferPacket packet =
+                        streamContext.recordQueue().poll(10, TimeUnit.SECONDS);
+                Assert.assertNotNull(packet);
+                Assert.assertEquals(String.valueOf(i + 1), packet.getRecord().getSafeTimestamp());
+            }
+            connection.close();
+            server.close().sync();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+}
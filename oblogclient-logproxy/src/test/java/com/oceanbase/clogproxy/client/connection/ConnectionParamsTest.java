@@ -0,0 +1,34 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class ConnectionParamsTest {
+
+    @Test
+    public void testParseEndpoints() {
+        List<ConnectionParams.Endpoint> endpoints =
+                ConnectionParams.Endpoint.parse("a, b:2984, [::1]:2985, ::1, unix:///tmp/s", 2983);
+        Assert.assertEquals(
+                "[a:2983, b:2984, [::1]:2985, [::1]:2983, unix:///tmp/s]", endpoints.toString());
+        Assert.assertEquals("/tmp/s", endpoints.get(4).getDomainSocketPath());
+    }
+}
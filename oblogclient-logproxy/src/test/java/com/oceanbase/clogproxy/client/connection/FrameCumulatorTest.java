@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FrameCumulatorTest {
+
+    @Test
+    public void testCumulate() {
+        int frameLength = 1024 * 1024;
+        int chunkSize = 64 * 1024;
+        FrameCumulator cumulator = new FrameCumulator();
+        ByteBuf cumulation = Unpooled.buffer(chunkSize).writeZero(chunkSize);
+        cumulator.expect(frameLength);
+        cumulation =
+                cumulator.cumulate(
+                        ByteBufAllocator.DEFAULT,
+                        cumulation,
+                        Unpooled.buffer(chunkSize).writeZero(chunkSize));
+        Assert.assertTrue(cumulation.capacity() >= frameLength);
+
+        ByteBuf frame = cumulation;
+        while (cumulation.readableBytes() < frameLength) {
+            cumulation =
+                    cumulator.cumulate(
+                            ByteBufAllocator.DEFAULT,
+                            cumulation,
+                            Unpooled.buffer(chunkSize).writeZero(chunkSize));
+            Assert.assertSame(frame, cumulation);
+        }
+        Assert.assertEquals(frameLength, cumulation.readableBytes());
+        cumulation.release();
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.enums.ErrorCode;
+import com.oceanbase.clogproxy.client.exception.LogProxyClientException;
+import com.oceanbase.clogproxy.client.listener.BatchRecordListener;
+import com.oceanbase.clogproxy.client.listener.RecordListener;
+import com.oceanbase.clogproxy.client.util.NamedThreadFactory;
+import com.oceanbase.clogproxy.client.util.VirtualThreads;
+import com.oceanbase.oms.logmessage.DataMessage;
+import com.oceanbase.oms.logmessage.LogMessage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LaneDispatcherTest {
+
+    @Test
+    public void testDispatch() throws Exception {
+        int keys = 8;
+        int rows = 1000;
+        RecordBlockBuilder builder = new RecordBlockBuilder();
+        builder.add(
+                DataMessage.Record.Type.BEGIN.value(),
+                "db",
+                "tbl",
+                1000L,
+                new String[0],
+                new String[0]);
+        for (int i = 0; i < rows; i++) {
+            builder.add(
+                    DataMessage.Record.Type.INSERT.value(),
+                    "db",
+                    "tbl",
+                    1000L,
+                    new String[] {"id", "seq"},
+                    new String[] {String.valueOf(i % keys), String.valueOf(i)});
+        }
+        builder.add(
+                DataMessage.Record.Type.COMMIT.value(),
+                "db",
+                "tbl",
+                1001L,
+                new String[0],
+                new String[0]);
+        List<LogMessage> records = builder.records();
+        Assert.assertArrayEquals(
+                new int[] {0},
+                records.get(1).getPrimaryAndUniqueConstraintColumnIndexTuples().get(0));
+        Assert.assertEquals(records.get(1).getKeyHash(), records.get(1 + keys).getKeyHash());
+        Assert.assertNotEquals(records.get(1).getKeyHash(), records.get(2).getKeyHash());
+        // the rows of different keys in a table are spread over the lanes
+        Set<Integer> lanesOfKeys = new HashSet<>();
+        for (int i = 1; i <= keys; i++) {
+            lanesOfKeys.add(Math.floorMod(records.get(i).getKeyHash(), 4));
+        }
+        Assert.assertTrue(lanesOfKeys.size() > 1);
+
+        // the listener of lanes records the rows of each key, and the barrier checks all of them
+        Map<String, List<Integer>> rowsOfKey = new ConcurrentHashMap<>();
+        AtomicInteger delivered = new AtomicInteger();
+        AtomicInteger rowsBeforeCommit = new AtomicInteger(-1);
+        RecordListener listener =
+                new RecordListener() {
+                    @Override
+                    public void notify(LogMessage logMessage) {
+                        if (logMessage.getOpt() == DataMessage.Record.Type.COMMIT) {
+                            rowsBeforeCommit.set(delivered.get());
+                            return;
+                        }
+                        if (logMessage.getOpt() != DataMessage.Record.Type.INSERT) {
+                            return;
+                        }
+                        List<DataMessage.Record.Field> fields = logMessage.getFieldList();
+                        rowsOfKey
+                                .computeIfAbsent(
+                                        fields.get(0).getValue().toString(),
+                                        k -> Collections.synchronizedList(new ArrayList<>()))
+                                .add(Integer.parseInt(fields.get(1).getValue().toString()));
+                        delivered.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onException(LogProxyClientException e) {}
+                };
+        LaneDispatcher dispatcher =
+                new LaneDispatcher(
+                        4,
+                        Collections.singletonList(listener),
+                        false,
+                        VirtualThreads.threadFactory("lane", new NamedThreadFactory("lane", true)));
+        try {
+            dispatcher.dispatch(records.subList(0, 1 + rows / 2));
+            dispatcher.markCheckpoint(records.get(rows / 2).getSafeTimestamp());
+            dispatcher.dispatch(records.subList(1 + rows / 2, records.size()));
+            dispatcher.markCheckpoint(records.get(records.size() - 1).getSafeTimestamp());
+            Assert.assertEquals(rows, rowsBeforeCommit.get());
+            Assert.assertEquals("1001", dispatcher.completedCheckpoint());
+            Assert.assertNull(dispatcher.completedCheckpoint());
+        } finally {
+            dispatcher.close();
+        }
+        Assert.assertEquals(keys, rowsOfKey.size());
+        for (List<Integer> seqs : rowsOfKey.values()) {
+            for (int i = 1; i < seqs.size(); i++) {
+                Assert.assertEquals(seqs.get(i - 1) + keys, (int) seqs.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testKeyChange() throws Exception {
+        int lanes = 4;
+        String[] names = {"id", "seq"};
+        // two keys of the table in different lanes
+        List<String> keys = new ArrayList<>();
+        Set<Integer> lanesOfKeys = new HashSet<>();
+        for (int i = 0; keys.size() < 2; i++) {
+            LogMessage record =
+                    new RecordBlockBuilder()
+                            .add(
+                                    DataMessage.Record.Type.INSERT.value(),
+                                    "db",
+                                    "tbl",
+                                    1000L,
+                                    names,
+                                    new String[] {String.valueOf(i), "0"})
+                            .records()
+                            .get(0);
+            if (lanesOfKeys.add(Math.floorMod(record.getKeyHash(), lanes))) {
+                keys.add(String.valueOf(i));
+            }
+        }
+        // the rows of the old key, then an update moving the row to the new key, and the rows of
+        // the new key
+        int rows = 20;
+        RecordBlockBuilder builder = new RecordBlockBuilder();
+        for (int i = 0; i <= 2 * rows; i++) {
+            String oldKey = i <= rows ? keys.get(0) : keys.get(1);
+            String newKey = i < rows ? keys.get(0) : keys.get(1);
+            builder.add(
+                    DataMessage.Record.Type.UPDATE.value(),
+                    "db",
+                    "tbl",
+                    1000L,
+                    names,
+                    new String[] {oldKey, String.valueOf(i)},
+                    new String[] {newKey, String.valueOf(i)});
+        }
+        List<LogMessage> records = builder.records();
+        Assert.assertFalse(records.get(rows - 1).isKeyHashChanged());
+        Assert.assertTrue(records.get(rows).isKeyHashChanged());
+        Assert.assertFalse(records.get(rows + 1).isKeyHashChanged());
+
+        // the rows of the old key are slow, so the rows of the new key would overtake the update
+        List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+        RecordListener listener =
+                new RecordListener() {
+                    @Override
+                    public void notify(LogMessage logMessage) {
+                        List<DataMessage.Record.Field> fields = logMessage.getFieldList();
+                        if (keys.get(0).equals(fields.get(0).getValue().toString())) {
+                            try {
+                                Thread.sleep(2);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                        // the fields of a column are in the old image and then in the new one
+                        delivered.add(Integer.parseInt(fields.get(2).getValue().toString()));
+                    }
+
+                    @Override
+                    public void onException(LogProxyClientException e) {}
+                };
+        LaneDispatcher dispatcher =
+                new LaneDispatcher(
+                        lanes,
+                        Collections.singletonList(listener),
+                        false,
+                        new NamedThreadFactory("lane", true));
+        try {
+            dispatcher.dispatch(records);
+            dispatcher.markCheckpoint(records.get(records.size() - 1).getSafeTimestamp());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (dispatcher.completedCheckpoint() == null) {
+                Assert.assertTrue(System.nanoTime() < deadline);
+                Thread.sleep(1);
+            }
+        } finally {
+            dispatcher.close();
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i <= 2 * rows; i++) {
+            expected.add(i);
+        }
+        Assert.assertEquals(expected, delivered);
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        RecordBlockBuilder builder = new RecordBlockBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.add(
+                    DataMessage.Record.Type.INSERT.value(),
+                    "db",
+                    "tbl",
+                    1000L + i,
+                    new String[] {"id"},
+                    new String[] {String.valueOf(i)});
+        }
+        builder.add(
+                DataMessage.Record.Type.COMMIT.value(),
+                "db",
+                "tbl",
+                1100L,
+                new String[0],
+                new String[0]);
+        List<LogMessage> records = builder.records();
+
+        // the rows skipped after a failure in a lane are never checkpointed
+        RecordListener failingListener =
+                new RecordListener() {
+                    @Override
+                    public void notify(LogMessage logMessage) {
+                        throw new IllegalStateException("mock failure");
+                    }
+
+                    @Override
+                    public void onException(LogProxyClientException e) {}
+                };
+        LaneDispatcher dispatcher =
+                new LaneDispatcher(
+                        2,
+                        Collections.singletonList(failingListener),
+                        false,
+                        new NamedThreadFactory("lane", true));
+        try {
+            dispatcher.dispatch(records.subList(0, 50));
+            dispatcher.markCheckpoint(records.get(49).getSafeTimestamp());
+            try {
+                dispatcher.dispatch(records.subList(50, records.size()));
+                Assert.fail("the failure in lanes should be raised at the barrier");
+            } catch (LogProxyClientException e) {
+                Assert.assertEquals(ErrorCode.E_USER, e.getCode());
+            }
+            Assert.assertNull(dispatcher.completedCheckpoint());
+        } finally {
+            dispatcher.close();
+        }
+    }
+
+    @Test
+    public void testNotifyOrder() throws Exception {
+        // the plain listeners receive each record in turn, and a batch listener in its order
+        RecordBlockBuilder builder = new RecordBlockBuilder();
+        for (int i = 1; i <= 2; i++) {
+            builder.add(
+                    DataMessage.Record.Type.INSERT.value(),
+                    "db",
+                    "tbl",
+                    i,
+                    new String[] {"id"},
+                    new String[] {String.valueOf(i)});
+        }
+        List<LogMessage> records = builder.records();
+        List<String> notified = new ArrayList<>();
+        List<RecordListener> listeners = new ArrayList<>();
+        for (String name : new String[] {"a", "b", "c", "d"}) {
+            listeners.add(
+                    "c".equals(name)
+                            ? new BatchRecordListener() {
+                                @Override
+                                public void notifyBatch(List<LogMessage> logMessages) {
+                                    notified.add(name + logMessages.size());
+                                }
+
+                                @Override
+                                public void onException(LogProxyClientException e) {}
+                            }
+                            : new RecordListener() {
+                                @Override
+                                public void notify(LogMessage logMessage) {
+                                    notified.add(name + logMessage.getSafeTimestamp());
+                                }
+
+                                @Override
+                                public void onException(LogProxyClientException e) {}
+                            });
+        }
+        LaneDispatcher.notify(listeners, records);
+        Assert.assertEquals(Arrays.asList("a1", "b1", "a2", "b2", "c2", "d1", "d2"), notified);
+    }
+}
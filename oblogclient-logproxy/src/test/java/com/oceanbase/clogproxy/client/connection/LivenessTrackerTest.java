@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class LivenessTrackerTest {
+
+    @Test
+    public void testTimeout() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        LivenessTracker tracker = new LivenessTracker(15, 60, 0);
+        Assert.assertEquals(15 * second, tracker.timeoutNanos());
+        Assert.assertFalse(tracker.isDead(14 * second));
+        Assert.assertTrue(tracker.isDead(15 * second));
+
+        // a busy stream keeps the minimum timeout
+        long now = 0;
+        for (int i = 0; i < 100; i++) {
+            tracker.progress(now += 10_000_000L);
+        }
+        Assert.assertEquals(15 * second, tracker.timeoutNanos());
+
+        // a bursty stream with long quiet periods gets a longer timeout, but no longer than max
+        for (int i = 0; i < 10; i++) {
+            tracker.progress(now += 20 * second);
+            tracker.progress(now += 1000);
+        }
+        Assert.assertTrue(tracker.timeoutNanos() > 20 * second);
+        Assert.assertFalse(tracker.isDead(now + 20 * second));
+        Assert.assertTrue(tracker.isDead(now + 60 * second));
+
+        // the time paused is not counted as idle
+        tracker.reset(now + 59 * second);
+        Assert.assertFalse(tracker.isDead(now + 60 * second));
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.codec.CompressionCodecs;
+import com.oceanbase.clogproxy.client.config.ClientConf;
+import com.oceanbase.clogproxy.client.config.ObReaderConfig;
+import com.oceanbase.clogproxy.common.packet.CompressType;
+import com.oceanbase.clogproxy.common.packet.LogType;
+import com.oceanbase.clogproxy.common.packet.ProtocolVersion;
+import com.oceanbase.clogproxy.common.packet.protocol.LogProxyProto;
+import com.oceanbase.oms.logmessage.DataMessage;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/** Test utility of a mock log proxy, and of the client side objects used to connect to it. */
+public class MockLogProxy {
+
+    /** Number of packets replied to a handshake by {@link RecordsHandler}. */
+    public static final int PACKETS = 3;
+
+    /** Number of records in each packet replied by {@link RecordsHandler}. */
+    public static final int RECORDS_PER_PACKET = 100;
+
+    /**
+     * Start a mock log proxy listening on a random port of the loopback address.
+     *
+     * @param group The event loop group of the server.
+     * @param handler The handler of accepted channels.
+     * @return The server channel.
+     * @throws InterruptedException If interrupted while binding.
+     */
+    public static Channel bind(EventLoopGroup group, ChannelHandler handler)
+            throws InterruptedException {
+        return new ServerBootstrap()
+                .group(group)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(handler)
+                .bind("127.0.0.1", 0)
+                .sync()
+                .channel();
+    }
+
+    /**
+     * Get the listening port of a server channel.
+     *
+     * @param server The server channel.
+     * @return The port.
+     */
+    public static int port(Channel server) {
+        return ((InetSocketAddress) server.localAddress()).getPort();
+    }
+
+    /**
+     * Create the connection params of V2 protocol.
+     *
+     * @param host The host, or a list of endpoints.
+     * @param port The default port.
+     * @return The connection params.
+     */
+    public static ConnectionParams params(String host, int port) {
+        ConnectionParams params =
+                new ConnectionParams(LogType.OCEANBASE, "test", host, port, new ObReaderConfig());
+        params.setProtocolVersion(ProtocolVersion.V2);
+        return params;
+    }
+
+    /**
+     * Create the context of a new stream.
+     *
+     * @param clientConf The client config.
+     * @param params The connection params.
+     * @return The stream context.
+     */
+    public static StreamContext context(ClientConf clientConf, ConnectionParams params) {
+        return new StreamContext(new ClientStream(clientConf, params), clientConf, params);
+    }
+
+    /**
+     * Read the configuration string of a V2 handshake request, and release the request.
+     *
+     * @param msg The request.
+     * @return The configuration string.
+     * @throws InvalidProtocolBufferException If the request body can't be parsed.
+     */
+    public static String configuration(Object msg) throws InvalidProtocolBufferException {
+        ByteBuf request = (ByteBuf) msg;
+        request.skipBytes(7 + 2 + 1);
+        byte[] body = new byte[request.readInt()];
+        request.readBytes(body).release();
+        return LogProxyProto.ClientHandshakeRequest.parseFrom(body).getConfiguration();
+    }
+
+    /**
+     * A mock log proxy which replies records in the compress type requested in the handshake, and
+     * in LZ4 if no compress type is requested.
+     */
+    @ChannelHandler.Sharable
+    public static class RecordsHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            String configuration = configuration(msg);
+            CompressType compressType = CompressType.LZ4;
+            for (CompressType type : CompressType.values()) {
+                String codec =
+                        type == CompressType.NONE
+                                ? "none"
+                                : CompressionCodecs.get(type.code()).name();
+                if (configuration.contains(ClientHandler.COMPRESS_TYPE_KEY + "=" + codec + " ")) {
+                    compressType = type;
+                }
+            }
+            for (int p = 0; p < PACKETS; p++) {
+                RecordBlockBuilder builder = new RecordBlockBuilder();
+                for (int i = 0; i < RECORDS_PER_PACKET; i++) {
+                    long timestamp = p * RECORDS_PER_PACKET + i + 1;
+                    builder.add(
+                            DataMessage.Record.Type.INSERT.value(),
+                            "db",
+                            compressType.name(),
+                            timestamp,
+                            new String[] {"id"},
+                            new String[] {String.valueOf(timestamp)});
+                }
+                ctx.write(builder.packet(compressType));
+            }
+            ctx.flush();
+        }
+    }
+
+    /**
+     * A mock log proxy which replies two transactions, the first connection stops in the middle of
+     * the second one, and the others reply it from its BEGIN.
+     */
+    @ChannelHandler.Sharable
+    public static class TransactionHandler extends ChannelInboundHandlerAdapter {
+
+        /** Configurations of the handshakes received. */
+        final List<String> configurations = Collections.synchronizedList(new ArrayList<>());
+
+        /** Channels which have replied the records. */
+        final BlockingQueue<Channel> channels = new LinkedBlockingQueue<>();
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            configurations.add(configuration(msg));
+            DataMessage.Record.Type[] types = {
+                DataMessage.Record.Type.BEGIN,
+                DataMessage.Record.Type.INSERT,
+                DataMessage.Record.Type.COMMIT,
+                DataMessage.Record.Type.BEGIN,
+                DataMessage.Record.Type.INSERT,
+                DataMessage.Record.Type.COMMIT
+            };
+            int from = configurations.size() == 1 ? 0 : 3;
+            int to = configurations.size() == 1 ? 5 : 6;
+            RecordBlockBuilder builder = new RecordBlockBuilder();
+            for (int i = from; i < to; i++) {
+                builder.add(
+                        types[i].value(),
+                        "db",
+                        "tbl",
+                        1001L + i,
+                        new String[] {"id"},
+                        new String[] {String.valueOf(i)});
+            }
+            ctx.writeAndFlush(builder.packet(CompressType.NONE));
+            channels.add(ctx.channel());
+        }
+    }
+}
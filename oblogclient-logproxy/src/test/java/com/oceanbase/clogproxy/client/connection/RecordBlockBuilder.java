@@ -0,0 +1,322 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.codec.CompressionCodecs;
+import com.oceanbase.clogproxy.common.packet.CompressType;
+import com.oceanbase.clogproxy.common.packet.HeaderType;
+import com.oceanbase.clogproxy.common.packet.ProtocolVersion;
+import com.oceanbase.clogproxy.common.packet.protocol.LogProxyProto;
+import com.oceanbase.clogproxy.common.packet.protocol.V1Proto;
+import com.oceanbase.oms.logmessage.LogMessage;
+import com.oceanbase.oms.logmessage.enums.DataType;
+
+import com.google.protobuf.ByteString;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Test utility that builds binary log message records and V2 record data packets. */
+public class RecordBlockBuilder {
+
+    /** Source type of OceanBase in MySQL mode. */
+    private static final int SRC_TYPE_OB_MYSQL = 4;
+
+    /** Length of the record header which is placed after the prefix. */
+    private static final int HEADER_LENGTH = 1 + 4 + 96;
+
+    /** Buffer of the block. */
+    private final ByteBuf block = Unpooled.buffer();
+
+    /** Number of records in the block. */
+    private int count = 0;
+
+    /**
+     * Append a record to the block.
+     *
+     * @param op Operation type code.
+     * @param db Database name.
+     * @param table Table name.
+     * @param timestamp Safe timestamp of the record.
+     * @param names Column names.
+     * @param values Column values in the new image.
+     * @return This builder.
+     */
+    public RecordBlockBuilder add(
+            int op, String db, String table, long timestamp, String[] names, String[] values) {
+        return add(op, db, table, timestamp, names, new String[0], values);
+    }
+
+    /**
+     * Append a record with the old image to the block.
+     *
+     * @param op Operation type code.
+     * @param db Database name.
+     * @param table Table name.
+     * @param timestamp Safe timestamp of the record.
+     * @param names Column names.
+     * @param oldValues Column values in the old image, the first one is the primary key.
+     * @param values Column values in the new image, the first one is the primary key.
+     * @return This builder.
+     */
+    public RecordBlockBuilder add(
+            int op,
+            String db,
+            String table,
+            long timestamp,
+            String[] names,
+            String[] oldValues,
+            String[] values) {
+        block.writeBytes(record(op, db, table, timestamp, names, oldValues, values));
+        count++;
+        return this;
+    }
+
+    /**
+     * Get the number of records in the block.
+     *
+     * @return The number of records.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Get the raw bytes of the block.
+     *
+     * @return The raw bytes of the block.
+     */
+    public byte[] raw() {
+        byte[] bytes = new byte[block.readableBytes()];
+        block.getBytes(block.readerIndex(), bytes);
+        return bytes;
+    }
+
+    /**
+     * Parse the records of the block.
+     *
+     * @return The parsed records, which are not pooled.
+     * @throws Exception If a record can't be parsed.
+     */
+    public List<LogMessage> records() throws Exception {
+        ByteBuf raw = Unpooled.wrappedBuffer(raw());
+        List<LogMessage> records = new ArrayList<>();
+        for (int offset : RecordBlockSplitter.V2.index(raw)) {
+            records.add(RecordBlockSplitter.V2.parse(raw, offset, false));
+        }
+        return records;
+    }
+
+    /**
+     * Build a V2 packet with the header and a {@link LogProxyProto.RecordData} body.
+     *
+     * @param compressType Compress type of the record data.
+     * @return A {@link ByteBuf} of the packet.
+     */
+    public ByteBuf packet(CompressType compressType) {
+        byte[] body = recordData(compressType).toByteArray();
+        ByteBuf packet = Unpooled.buffer(7 + body.length);
+        packet.writeShort(ProtocolVersion.V2.code());
+        packet.writeByte(HeaderType.DATA_CLIENT.code());
+        packet.writeInt(body.length);
+        packet.writeBytes(body);
+        return packet;
+    }
+
+    /**
+     * Build a V1 packet with the header and a {@link V1Proto.PbPacket} body, whose payload is a
+     * {@link LogProxyProto.RecordData}.
+     *
+     * @param compressType Compress type of the record data.
+     * @return A {@link ByteBuf} of the packet.
+     */
+    public ByteBuf packetV1(CompressType compressType) {
+        byte[] body =
+                V1Proto.PbPacket.newBuilder()
+                        .setType(HeaderType.DATA_CLIENT.code())
+                        .setCompressType(CompressType.NONE.code())
+                        .setPayload(recordData(compressType).toByteString())
+                        .build()
+                        .toByteArray();
+        ByteBuf packet = Unpooled.buffer(6 + body.length);
+        packet.writeShort(ProtocolVersion.V1.code());
+        packet.writeInt(body.length);
+        packet.writeBytes(body);
+        return packet;
+    }
+
+    /**
+     * Build a V0 packet, where each record is the one used by V2 record blocks with another 8 bytes
+     * prefix that holds the big-endian length of it.
+     *
+     * @param compressType Compress type of the records.
+     * @return A {@link ByteBuf} of the packet.
+     */
+    public ByteBuf packetV0(CompressType compressType) {
+        ByteBuf raw = Unpooled.buffer();
+        for (int offset = 0; offset < block.writerIndex(); ) {
+            int length = block.getIntLE(offset + 4) + 8;
+            raw.writeInt(0).writeInt(length).writeBytes(block, offset, length);
+            offset += length;
+        }
+        ByteBuf records = raw;
+        if (compressType != CompressType.NONE) {
+            records =
+                    CompressionCodecs.get(compressType.code())
+                            .compress(raw, UnpooledByteBufAllocator.DEFAULT);
+        }
+        ByteBuf packet = Unpooled.buffer();
+        packet.writeShort(ProtocolVersion.V0.code());
+        packet.writeInt(HeaderType.DATA_CLIENT.code());
+        packet.writeInt(1 + 4 + 4 + records.readableBytes());
+        packet.writeByte(compressType.code());
+        packet.writeInt(raw.readableBytes());
+        packet.writeInt(records.readableBytes());
+        packet.writeBytes(records);
+        return packet;
+    }
+
+    private LogProxyProto.RecordData recordData(CompressType compressType) {
+        byte[] raw = raw();
+        byte[] records = raw;
+        if (compressType != CompressType.NONE) {
+            ByteBuf compressed =
+                    CompressionCodecs.get(compressType.code())
+                            .compress(
+                                    Unpooled.wrappedBuffer(raw), UnpooledByteBufAllocator.DEFAULT);
+            records = ByteBufUtil.getBytes(compressed);
+            compressed.release();
+        }
+        return LogProxyProto.RecordData.newBuilder()
+                .setCompressType(compressType.code())
+                .setRawLen(raw.length)
+                .setCompressedLen(records.length)
+                .setCount(count)
+                .setRecords(ByteString.copyFrom(records))
+                .build();
+    }
+
+    /**
+     * Build a record in the layout used by V2 record blocks, which is an 8 bytes prefix followed by
+     * the binary log message.
+     *
+     * @param op Operation type code.
+     * @param db Database name.
+     * @param table Table name.
+     * @param timestamp Safe timestamp of the record.
+     * @param names Column names.
+     * @param oldValues Column values in the old image, the first one is the primary key.
+     * @param values Column values in the new image, the first one is the primary key.
+     * @return The bytes of record.
+     */
+    public static byte[] record(
+            int op,
+            String db,
+            String table,
+            long timestamp,
+            String[] names,
+            String[] oldValues,
+            String[] values) {
+        ByteBuf data = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        int encodingOffset = HEADER_LENGTH + writeString(data, "utf8mb4");
+        int dbOffset = HEADER_LENGTH + writeString(data, db);
+        int tableOffset = HEADER_LENGTH + writeString(data, table);
+        int colNamesOffset = HEADER_LENGTH + writeStringArray(data, names);
+        int colTypesOffset = HEADER_LENGTH + data.writerIndex();
+        data.writeByte(DataType.DC_ARRAY | DataType.DT_UINT8);
+        data.writeInt(names.length);
+        for (int i = 0; i < names.length; i++) {
+            data.writeByte(253);
+        }
+        int oldColsOffset = HEADER_LENGTH + writeStringArray(data, oldValues);
+        int newColsOffset = HEADER_LENGTH + writeStringArray(data, values);
+        // the constraint column index tuples, the first column is the primary key
+        int pkValOffset =
+                values.length == 0 && oldValues.length == 0
+                        ? -1
+                        : HEADER_LENGTH + writeStringArray(data, new String[] {"(0)"});
+
+        ByteBuf buf = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        buf.writeZero(12);
+        buf.writeByte(DataType.DC_ARRAY | DataType.DT_UINT8);
+        buf.writeInt(96);
+        buf.writeByte(2);
+        buf.writeByte(SRC_TYPE_OB_MYSQL);
+        buf.writeByte(op);
+        buf.writeByte(0);
+        buf.writeInt(0);
+        buf.writeLong(timestamp);
+        buf.writeLong(timestamp);
+        buf.writeInt(encodingOffset);
+        buf.writeInt(-1);
+        buf.writeInt(-1);
+        buf.writeInt(dbOffset);
+        buf.writeInt(tableOffset);
+        buf.writeInt(colNamesOffset);
+        buf.writeInt(colTypesOffset);
+        buf.writeInt(pkValOffset);
+        buf.writeLong(timestamp);
+        buf.writeLong(0);
+        buf.writeInt(oldColsOffset);
+        buf.writeInt(newColsOffset);
+        buf.writeInt(-1);
+        buf.writeInt(-1);
+        buf.writeLong(-1);
+        buf.writeBytes(data);
+        buf.setIntLE(4, buf.writerIndex() - 8);
+
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.readBytes(bytes);
+        return bytes;
+    }
+
+    private static int writeString(ByteBuf data, String value) {
+        int offset = data.writerIndex();
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeByte(DataType.DT_STRING);
+        data.writeInt(bytes.length + 1);
+        data.writeBytes(bytes);
+        data.writeByte(0);
+        return offset;
+    }
+
+    private static int writeStringArray(ByteBuf data, String[] values) {
+        int offset = data.writerIndex();
+        data.writeByte(DataType.DC_ARRAY | DataType.DT_STRING);
+        data.writeInt(values.length);
+        if (values.length == 0) {
+            return offset;
+        }
+        int current = 0;
+        data.writeInt(current);
+        for (String value : values) {
+            current += value.getBytes(StandardCharsets.UTF_8).length + 1;
+            data.writeInt(current);
+        }
+        for (String value : values) {
+            data.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            data.writeByte(0);
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.enums.ErrorCode;
+import com.oceanbase.clogproxy.client.exception.LogProxyClientException;
+import com.oceanbase.oms.logmessage.DataMessage;
+import com.oceanbase.oms.logmessage.LogMessage;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+public class RecordBlockSplitterTest {
+
+    @Test
+    public void testIndex() throws Exception {
+        RecordBlockBuilder builder = new RecordBlockBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.add(
+                    DataMessage.Record.Type.INSERT.value(),
+                    "db",
+                    "tbl",
+                    1000L + i,
+                    new String[] {"id"},
+                    new String[] {String.valueOf(i)});
+        }
+        ByteBuf block = Unpooled.wrappedBuffer(builder.raw());
+        int[] index = RecordBlockSplitter.V2.index(block);
+        Assert.assertEquals(100, index.length);
+
+        // records can be parsed at random and by several threads
+        LogMessage[] messages = new LogMessage[index.length];
+        IntStream.range(0, index.length)
+                .parallel()
+                .forEach(
+                        i -> {
+                            try {
+                                messages[i] = RecordBlockSplitter.V2.parse(block, index[i], false);
+                            } catch (Exception e) {
+                                throw new RuntimeException(e);
+                            }
+                        });
+        for (int i = 0; i < messages.length; i++) {
+            Assert.assertEquals(String.valueOf(1000L + i), messages[i].getSafeTimestamp());
+        }
+
+        ByteBuf truncated = block.slice(0, block.readableBytes() - 1);
+        LogProxyClientException e =
+                Assert.assertThrows(
+                        LogProxyClientException.class,
+                        () -> RecordBlockSplitter.V2.index(truncated));
+        Assert.assertEquals(ErrorCode.E_LEN, e.getCode());
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class SpscRingQueueTest {
+
+    @Test
+    public void testOfferAndPoll() throws Exception {
+        SpscRingQueue<Integer> queue = new SpscRingQueue<>(3);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertFalse(queue.offer(3));
+        Assert.assertEquals(3, queue.size());
+        Assert.assertEquals(0, queue.remainingCapacity());
+        Assert.assertEquals(Integer.valueOf(0), queue.poll());
+        Assert.assertTrue(queue.offer(3));
+        List<Integer> drained = new ArrayList<>();
+        Assert.assertEquals(3, queue.drainTo(drained));
+        Assert.assertEquals(Arrays.asList(1, 2, 3), drained);
+        Assert.assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+
+        // the consumer parks on an empty queue and the producer parks on a full one
+        int count = 1000000;
+        Thread producer =
+                new Thread(
+                        () -> {
+                            try {
+                                for (int i = 0; i < count; i++) {
+                                    queue.put(i);
+                                }
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+        producer.start();
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(Integer.valueOf(i), queue.poll(10, TimeUnit.SECONDS));
+        }
+        producer.join();
+        Assert.assertTrue(queue.isEmpty());
+    }
+}
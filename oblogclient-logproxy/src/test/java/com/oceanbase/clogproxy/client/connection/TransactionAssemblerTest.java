@@ -0,0 +1,79 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.connection;
+
+import com.oceanbase.clogproxy.client.listener.Transaction;
+import com.oceanbase.oms.logmessage.DataMessage;
+import com.oceanbase.oms.logmessage.LogMessage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TransactionAssemblerTest {
+
+    @Test
+    public void testAssemble() throws Exception {
+        DataMessage.Record.Type[] types = {
+            DataMessage.Record.Type.INSERT,
+            DataMessage.Record.Type.COMMIT,
+            DataMessage.Record.Type.HEARTBEAT,
+            DataMessage.Record.Type.BEGIN,
+            DataMessage.Record.Type.INSERT,
+            DataMessage.Record.Type.UPDATE,
+            DataMessage.Record.Type.DELETE,
+            DataMessage.Record.Type.COMMIT,
+            DataMessage.Record.Type.DDL,
+            DataMessage.Record.Type.BEGIN,
+            DataMessage.Record.Type.INSERT,
+            DataMessage.Record.Type.ROLLBACK,
+            DataMessage.Record.Type.BEGIN,
+            DataMessage.Record.Type.INSERT
+        };
+        RecordBlockBuilder builder = new RecordBlockBuilder();
+        for (int i = 0; i < types.length; i++) {
+            builder.add(
+                    types[i].value(),
+                    "db",
+                    "tbl",
+                    1000L + i,
+                    new String[] {"id"},
+                    new String[] {String.valueOf(i)});
+        }
+        List<Transaction> transactions = new ArrayList<>();
+        TransactionAssembler assembler = new TransactionAssembler(false);
+        for (LogMessage record : builder.records()) {
+            assembler.add(record, transactions::add);
+        }
+
+        // the first transaction started before the stream, and the last one is open
+        Assert.assertEquals(4, transactions.size());
+        Assert.assertNull(transactions.get(0).getBegin());
+        Assert.assertEquals(1, transactions.get(0).getRowCount());
+        Assert.assertEquals(1001L, transactions.get(0).getCommitTimestamp());
+        Assert.assertNotNull(transactions.get(1).getBegin());
+        Assert.assertEquals(3, transactions.get(1).getRowCount());
+        Assert.assertEquals(1007L, transactions.get(1).getCommitTimestamp());
+        Assert.assertFalse(transactions.get(1).isRollback());
+        Assert.assertEquals(
+                DataMessage.Record.Type.DDL, transactions.get(2).getRows().get(0).getOpt());
+        Assert.assertTrue(transactions.get(3).isRollback());
+        assembler.reset();
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2024 OceanBase.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.oceanbase.clogproxy.client.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ThreadFactory;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void testThreadFactory() throws Exception {
+        ThreadFactory fallback = new NamedThreadFactory("platform", true);
+        ThreadFactory factory = VirtualThreads.threadFactory("virtual", fallback);
+        if (!VirtualThreads.isAvailable()) {
+            Assert.assertSame(fallback, factory);
+            return;
+        }
+        Thread thread = factory.newThread(() -> {});
+        Assert.assertEquals("virtual-1", thread.getName());
+        Assert.assertTrue(thread.isDaemon());
+        Assert.assertEquals(true, Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+}